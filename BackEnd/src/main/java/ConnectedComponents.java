@@ -0,0 +1,318 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+
+/**
+ * A class to label the connected regions of traversable tiles in a grid <br>
+ * the labels are kept up to date as walls are added and removed: removed walls merge regions using union-find,
+ * added walls only trigger a relabel of their own region when they may have split it <br>
+ * the labels follow the notifications delivered by the grid, so they may lag behind it: a search can check them against
+ * the snapshot it runs on with isDisconnected
+ */
+public class ConnectedComponents implements GridListener {
+
+    // the neighbour offsets
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1};
+
+    // the 8 tiles around a tile, in circular order (orthogonal neighbours in the even positions)
+    private static final int[] RING_X = {0, 1, 1, 1, 0, -1, -1, -1};
+    private static final int[] RING_Y = {1, 1, 0, -1, -1, -1, 0, 1};
+
+    // The grid to label
+    private final Grid grid;
+
+    // The label of every tile (-1 for walls)
+    private int[] labels;
+
+    // The union-find parent of every label
+    private int[] parents;
+
+    // The next unused label
+    private int nextLabel;
+
+    // New walls that may have split their region
+    private final LinkedList<Integer> pendingSplits;
+
+    // Whether the whole grid has to be labeled again
+    private boolean needsRelabel;
+
+    // The layout version of the grid the labels match
+    private long labeledVersion;
+
+    /**
+     * A constructor to create a new connected component index that follows the changes of a grid
+     * @param grid - the grid to label
+     */
+    public ConnectedComponents(Grid grid) {
+        this.grid = grid;
+        this.pendingSplits = new LinkedList<>();
+        this.needsRelabel = true;
+        this.labeledVersion = -1;
+        grid.addListener(this);
+    }
+
+    // A method to check if a tile is traversable as of the labeled version
+    // (the grid itself may already be ahead of it)
+    private boolean isLabeled(int x, int y) {
+        return this.grid.isInGrid(x, y) && this.labels[this.grid.getIndex(x, y)] != -1;
+    }
+
+    // A method to find the root label of a label
+    private int find(int label) {
+        while (this.parents[label] != label) {
+            // halve the path on the way up
+            this.parents[label] = this.parents[this.parents[label]];
+            label = this.parents[label];
+        }
+        return label;
+    }
+
+    // A method to create a new label
+    private int newLabel() {
+        if (this.nextLabel == this.parents.length)
+            this.parents = Arrays.copyOf(this.parents, this.parents.length * 2);
+        this.parents[this.nextLabel] = this.nextLabel;
+        return this.nextLabel++;
+    }
+
+    // A method to give a new label to every tile reachable from a given tile
+    private void flood(int start) {
+        int label = this.newLabel();
+        int[] queue = new int[16];
+        int head = 0, tail = 0;
+        this.labels[start] = label;
+        queue[tail++] = start;
+        while (head < tail) {
+            int current = queue[head++];
+            int x = this.grid.getX(current);
+            int y = this.grid.getY(current);
+            for (int direction = 0; direction < DX.length; direction++) {
+                int nx = x + DX[direction];
+                int ny = y + DY[direction];
+                if (!this.isLabeled(nx, ny))
+                    continue;
+                int neighbor = this.grid.getIndex(nx, ny);
+                if (this.labels[neighbor] == label)
+                    continue;
+                this.labels[neighbor] = label;
+                if (tail == queue.length)
+                    queue = Arrays.copyOf(queue, tail * 2);
+                queue[tail++] = neighbor;
+            }
+        }
+    }
+
+    // A method to label the whole grid from scratch, as of a snapshot of it
+    private void relabel() {
+        GridSnapshot snapshot = this.grid.snapshot();
+        int tiles = this.grid.getWidth() * this.grid.getHeight();
+        this.labels = new int[tiles];
+        this.parents = new int[16];
+        this.nextLabel = 0;
+        // -2 marks the traversable tiles that weren't labeled yet
+        for (int i = 0; i < tiles; i++)
+            this.labels[i] = snapshot.getTileType(this.grid.getX(i), this.grid.getY(i)) == GridConstants.TILE_TYPES.WALL ? -1 : -2;
+        for (int i = 0; i < tiles; i++)
+            if (this.labels[i] == -2)
+                this.flood(i);
+        this.pendingSplits.clear();
+        this.needsRelabel = false;
+        this.labeledVersion = snapshot.getVersion();
+    }
+
+    // A method to bring the labels up to date before answering a query
+    private void update() {
+        // relabel everything if there is too much work pending, or too many labels were used
+        int tiles = this.grid.getWidth() * this.grid.getHeight();
+        if (this.needsRelabel || this.pendingSplits.size() > tiles / 64 || this.nextLabel > 4 * tiles) {
+            this.relabel();
+            return;
+        }
+        // relabel the regions around every new wall, each split part touches the wall
+        int firstNewLabel = this.nextLabel;
+        while (!this.pendingSplits.isEmpty()) {
+            int wall = this.pendingSplits.poll();
+            int x = this.grid.getX(wall);
+            int y = this.grid.getY(wall);
+            for (int direction = 0; direction < DX.length; direction++) {
+                int nx = x + DX[direction];
+                int ny = y + DY[direction];
+                if (!this.isLabeled(nx, ny))
+                    continue;
+                int neighbor = this.grid.getIndex(nx, ny);
+                if (this.labels[neighbor] < firstNewLabel)
+                    this.flood(neighbor);
+            }
+        }
+    }
+
+    // A method to check if turning a tile into a wall may split its region, by checking the tiles around it stay connected
+    private boolean maySplit(int x, int y) {
+        boolean[] ring = new boolean[RING_X.length];
+        int start = -1;
+        for (int i = 0; i < ring.length; i++) {
+            ring[i] = this.isLabeled(x + RING_X[i], y + RING_Y[i]);
+            if (!ring[i])
+                start = i;
+        }
+        // surrounded by traversable tiles
+        if (start == -1)
+            return false;
+        // count the runs of traversable tiles around the ring that touch an orthogonal neighbour
+        int runs = 0;
+        boolean inRun = false, runCounted = false;
+        for (int i = 1; i <= ring.length; i++) {
+            int position = (start + i) % ring.length;
+            if (!ring[position]) {
+                inRun = false;
+                continue;
+            }
+            if (!inRun) {
+                inRun = true;
+                runCounted = false;
+            }
+            if (position % 2 == 0 && !runCounted) {
+                runCounted = true;
+                runs++;
+            }
+        }
+        return runs > 1;
+    }
+
+    // A method to check if the change being delivered is newer than the labels, moving the labels to its version if so
+    // (changes older than a relabel are already part of the snapshot it labeled)
+    private boolean isNewChange() {
+        long version = this.grid.getDeliveredVersion();
+        if (this.needsRelabel || version <= this.labeledVersion)
+            return false;
+        this.labeledVersion = version;
+        return true;
+    }
+
+    @Override
+    public synchronized void tileChanged(int x, int y, GridConstants.TILE_TYPES previous, GridConstants.TILE_TYPES current) {
+        // ignore changes that don't affect traversal, or if everything will be labeled again anyway
+        if ((previous == GridConstants.TILE_TYPES.WALL) != (current == GridConstants.TILE_TYPES.WALL) && this.isNewChange())
+            this.applyChange(x, y, current);
+    }
+
+    // A method to update the labels for a tile that turned into / stopped being a wall
+    private void applyChange(int x, int y, GridConstants.TILE_TYPES current) {
+        boolean isWall = current == GridConstants.TILE_TYPES.WALL;
+        int index = this.grid.getIndex(x, y);
+        if (isWall) {
+            this.labels[index] = -1;
+            if (this.maySplit(x, y))
+                this.pendingSplits.add(index);
+            return;
+        }
+        // a removed wall joins the regions of all its neighbours
+        int root = -1;
+        for (int direction = 0; direction < DX.length; direction++) {
+            int nx = x + DX[direction];
+            int ny = y + DY[direction];
+            if (!this.isLabeled(nx, ny))
+                continue;
+            int neighborRoot = this.find(this.labels[this.grid.getIndex(nx, ny)]);
+            if (root == -1)
+                root = neighborRoot;
+            else if (neighborRoot != root)
+                this.parents[neighborRoot] = root;
+        }
+        this.labels[index] = root == -1 ? this.newLabel() : root;
+    }
+
+    @Override
+    public synchronized void tilesChanged(GridChangeSet changes) {
+        // ignore edits that don't affect traversal, and label everything again instead of following large ones
+        if (!changes.isLayoutChanged() || !this.isNewChange())
+            return;
+        if (changes.size() > this.grid.getWidth() * this.grid.getHeight() / 64) {
+            this.needsRelabel = true;
+            return;
+        }
+        for (int i = 0; i < changes.size(); i++)
+            if ((changes.getPreviousType(i) == GridConstants.TILE_TYPES.WALL) != (changes.getType(i) == GridConstants.TILE_TYPES.WALL))
+                this.applyChange(changes.getX(i), changes.getY(i), changes.getType(i));
+    }
+
+    @Override
+    public synchronized void gridReset() {
+        this.needsRelabel = true;
+    }
+
+    /**
+     * A method to get the region of a tile
+     * @param x - the width index
+     * @param y - the height index
+     * @return an id of the region containing the tile (-1 for walls), equal for all tiles in the same region
+     * @throws IndexOutOfBoundsException - if the given point (x, y) is not in the grid
+     */
+    public synchronized int getComponent(int x, int y) throws IndexOutOfBoundsException {
+        if (!this.grid.isInGrid(x, y))
+            throw new IndexOutOfBoundsException("(" + x + ", " + y + ") is not in the grid!");
+        this.update();
+        int label = this.labels[this.grid.getIndex(x, y)];
+        return label == -1 ? -1 : this.find(label);
+    }
+
+    /**
+     * A method to check if a path exists between 2 tiles
+     * @param source - the first tile
+     * @param destination - the second tile
+     * @return true if both tiles are traversable and in the same region, false otherwise
+     * @throws IndexOutOfBoundsException - if one of the tiles is not in the grid
+     */
+    public synchronized boolean isConnected(int[] source, int[] destination) throws IndexOutOfBoundsException {
+        int component = this.getComponent(source[0], source[1]);
+        return component != -1 && component == this.getComponent(destination[0], destination[1]);
+    }
+
+    /**
+     * A method to check if it is known that no path exists between 2 tiles of a snapshot <br>
+     * (the answer is only known if the labels match the snapshot's version, a search can skip itself if this returns true)
+     * @param snapshot - the snapshot the tiles are taken from
+     * @param source - the first tile
+     * @param destination - the second tile
+     * @return true if the labels match the snapshot and the tiles are not in the same region, false otherwise
+     * @throws IndexOutOfBoundsException - if one of the tiles is not in the grid
+     */
+    public boolean isDisconnected(GridSnapshot snapshot, int[] source, int[] destination) throws IndexOutOfBoundsException {
+        return this.isDisconnected(snapshot.getVersion(), source, destination);
+    }
+
+    /**
+     * A method to check if it is known that no path exists between 2 tiles at a given version of the grid's layout <br>
+     * (for searches that read the grid itself, see Grid.getVersion)
+     * @param version - the layout version the search runs on
+     * @param source - the first tile
+     * @param destination - the second tile
+     * @return true if the labels match the version and the tiles are not in the same region, false otherwise
+     * @throws IndexOutOfBoundsException - if one of the tiles is not in the grid
+     */
+    public synchronized boolean isDisconnected(long version, int[] source, int[] destination) throws IndexOutOfBoundsException {
+        this.update();
+        if (this.labeledVersion != version)
+            return false;
+        return !this.isConnected(source, destination);
+    }
+
+    /**
+     * A method to group a batch of queries by the region they take place in
+     * @param queries - the queries, each given as {source x, source y, destination x, destination y}
+     * @return the queries grouped by region id, queries with no possible path are grouped under -1
+     * @throws IndexOutOfBoundsException - if a query's tile is not in the grid
+     */
+    public synchronized HashMap<Integer, LinkedList<int[]>> groupByComponent(int[][] queries) throws IndexOutOfBoundsException {
+        HashMap<Integer, LinkedList<int[]>> output = new HashMap<>();
+        for (int[] query : queries) {
+            int component = this.getComponent(query[0], query[1]);
+            if (component != this.getComponent(query[2], query[3]))
+                component = -1;
+            output.computeIfAbsent(component, key -> new LinkedList<>()).add(query);
+        }
+        return output;
+    }
+
+}
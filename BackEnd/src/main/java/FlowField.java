@@ -0,0 +1,148 @@
+import java.util.Arrays;
+import java.util.LinkedList;
+
+/**
+ * A class to hold the distance and direction fields towards a set of goal tiles <br>
+ * the fields are computed with a single multi-source BFS and kept until the grid's layout changes,
+ * so any number of units heading to the same goals can read their next step in O(1)
+ */
+public class FlowField {
+
+    // the neighbour offsets, indexed by direction
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1};
+
+    // a direction value for tiles that have no next step
+    private static final byte NO_DIRECTION = -1;
+
+    // The grid the field is computed on
+    private final Grid grid;
+
+    // The goal tiles
+    private final int[][] goals;
+
+    // The hop distance from each tile to the closest goal (-1 if unreachable)
+    private int[] distances;
+
+    // The direction of the next step from each tile towards the closest goal
+    private byte[] directions;
+
+    // The grid version the fields were computed for
+    private long version;
+
+    /**
+     * A constructor to create a new flow field towards the given goals
+     * @param grid - the grid to compute the field on
+     * @param goals - the goal tiles, each given as {x, y}
+     * @throws IllegalArgumentException - if no goal is given
+     * @throws IndexOutOfBoundsException - if a goal is not in the grid
+     */
+    public FlowField(Grid grid, int[]... goals) throws IllegalArgumentException, IndexOutOfBoundsException {
+        if (goals.length == 0)
+            throw new IllegalArgumentException("A flow field needs at least one goal!");
+        for (int[] goal : goals)
+            if (!grid.isInGrid(goal[0], goal[1]))
+                throw new IndexOutOfBoundsException("(" + goal[0] + ", " + goal[1] + ") is not in the grid!");
+        this.grid = grid;
+        this.goals = new int[goals.length][];
+        for (int i = 0; i < goals.length; i++)
+            this.goals[i] = goals[i].clone();
+        // mark the fields as outdated
+        this.version = -1;
+    }
+
+    // A method to recompute the fields if the grid changed since they were computed
+    private void update() {
+        if (this.version == this.grid.getVersion() && this.distances != null)
+            return;
+        // work on a snapshot so the fields match a single version of the grid
+        GridSnapshot snapshot = this.grid.snapshot();
+        this.version = snapshot.getVersion();
+        int width = this.grid.getWidth();
+        int height = this.grid.getHeight();
+        this.distances = new int[width * height];
+        this.directions = new byte[width * height];
+        Arrays.fill(this.distances, -1);
+        Arrays.fill(this.directions, NO_DIRECTION);
+        // start the search from every goal at once
+        int[] queue = new int[width * height];
+        int head = 0, tail = 0;
+        for (int[] goal : this.goals) {
+            int index = this.grid.getIndex(goal[0], goal[1]);
+            if (this.distances[index] == -1 && snapshot.getTileType(goal[0], goal[1]) != GridConstants.TILE_TYPES.WALL) {
+                this.distances[index] = 0;
+                queue[tail++] = index;
+            }
+        }
+        while (head < tail) {
+            int current = queue[head++];
+            int x = this.grid.getX(current);
+            int y = this.grid.getY(current);
+            for (int direction = 0; direction < DX.length; direction++) {
+                int nx = x + DX[direction];
+                int ny = y + DY[direction];
+                // check neighbor is traversable and not reached yet
+                if (!snapshot.isInGrid(nx, ny) || snapshot.getTileType(nx, ny) == GridConstants.TILE_TYPES.WALL)
+                    continue;
+                int neighbor = this.grid.getIndex(nx, ny);
+                if (this.distances[neighbor] != -1)
+                    continue;
+                this.distances[neighbor] = this.distances[current] + 1;
+                // the neighbor steps back the way it was reached
+                this.directions[neighbor] = (byte) (direction ^ 1);
+                queue[tail++] = neighbor;
+            }
+        }
+    }
+
+    /**
+     * A method to get the hop distance from a tile to the closest goal
+     * @param x - the width index
+     * @param y - the height index
+     * @return the distance to the closest goal, -1 if no goal is reachable
+     * @throws IndexOutOfBoundsException - if the given point (x, y) is not in the grid
+     */
+    public int getDistance(int x, int y) throws IndexOutOfBoundsException {
+        if (!this.grid.isInGrid(x, y))
+            throw new IndexOutOfBoundsException("(" + x + ", " + y + ") is not in the grid!");
+        this.update();
+        return this.distances[this.grid.getIndex(x, y)];
+    }
+
+    /**
+     * A method to get the next step from a tile towards the closest goal
+     * @param x - the width index
+     * @param y - the height index
+     * @return the coordinates of the next tile, null if the tile is a goal or no goal is reachable
+     * @throws IndexOutOfBoundsException - if the given point (x, y) is not in the grid
+     */
+    public int[] getNextStep(int x, int y) throws IndexOutOfBoundsException {
+        if (!this.grid.isInGrid(x, y))
+            throw new IndexOutOfBoundsException("(" + x + ", " + y + ") is not in the grid!");
+        this.update();
+        byte direction = this.directions[this.grid.getIndex(x, y)];
+        if (direction == NO_DIRECTION)
+            return null;
+        return new int[] {x + DX[direction], y + DY[direction]};
+    }
+
+    /**
+     * A method to follow the field from a tile all the way to the closest goal
+     * @param x - the width index
+     * @param y - the height index
+     * @return the path, starting at (x, y) and ending at the goal (null if no goal is reachable)
+     * @throws IndexOutOfBoundsException - if the given point (x, y) is not in the grid
+     */
+    public PathResult getPath(int x, int y) throws IndexOutOfBoundsException {
+        if (this.getDistance(x, y) == -1)
+            return null;
+        LinkedList<Integer> path = new LinkedList<>();
+        int[] current = {x, y};
+        while (current != null) {
+            path.add(this.grid.getIndex(current[0], current[1]));
+            current = this.getNextStep(current[0], current[1]);
+        }
+        return new PathResult(path, this.grid.getWidth());
+    }
+
+}
@@ -1,21 +1,72 @@
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
 
 /**
- * A class to represent the grid the pathfinding will take place on
+ * A class to represent the grid the pathfinding will take place on <br>
+ * the grid is safe to edit and search from several threads: reads are optimistic and only wait for writers
+ * that are in the middle of updating a tile, and snapshot() gives a consistent copy of the whole grid
  */
 public class Grid {
 
+    // The side length of the square regions edits are tracked in
+    public static final int REGION_SIZE = 16;
+
+    // The number of listed tiles replaceTileTypes changes under a single lock acquisition
+    private static final int BATCH_SIZE = 4096;
+
+    // The lock guarding the tiles, writers hold it for a single tile update, or a strip / batch of a bulk edit, at a time
+    private final StampedLock lock = new StampedLock();
+
     // The grid we will use for path finding
-    private GridConstants.TILE_TYPES[][] grid;
+    private volatile GridConstants.TILE_TYPES[][] grid;
 
     // Source and destination points
-    private int[] source;
-    private int[] destination;
+    private volatile int[] source;
+    private volatile int[] destination;
 
     // An ordered log of tiles marked as path / visited
-    private LinkedList<GridConstants.Visitor> visitorLog;
+    private final LinkedList<GridConstants.Visitor> visitorLog = new LinkedList<>();
+
+    // A counter that is incremented every time a tile turns into / stops being a wall
+    private long version;
+
+    // The version in which each region of the grid was last changed
+    private long[] regionVersions;
+
+    // A counter that is incremented every time any tile changes, and the last change of each region
+    private long changes;
+    private long[] regionChanges;
+
+    // The last snapshot taken, its unchanged chunks are shared with the next one
+    private volatile GridSnapshot lastSnapshot;
+
+    // The listeners notified about changes to the grid
+    private final CopyOnWriteArrayList<GridListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Notifications waiting to be delivered to the listeners (queued in the order of the writes),
+    // and the lock held by the thread delivering them
+    private final ConcurrentLinkedQueue<PendingEvent> pendingEvents = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock deliveryLock = new ReentrantLock();
+
+    // The layout version the grid had right after the change being delivered (only written while delivering)
+    private long deliveredVersion;
+
+    // The open transaction of every thread, and the number of threads with an open transaction
+    private final ThreadLocal<Transaction> transactions = new ThreadLocal<>();
+    private final AtomicInteger openTransactions = new AtomicInteger();
+
+    // An index of the grid's connected regions, created on first use
+    private ConnectedComponents connectedComponents;
 
     /**
      * A constructor to create a new grid of given dimensions
@@ -54,6 +105,34 @@ public class Grid {
         return y >= 0 && y < this.getHeight();
     }
 
+    /**
+     * A method to pack a set of coordinates into a single tile index
+     * @param x - the width index
+     * @param y - the height index
+     * @return the index of the tile in (x, y)
+     */
+    public int getIndex(int x, int y) {
+        return y * this.getWidth() + x;
+    }
+
+    /**
+     * A method to get the width index of a packed tile index
+     * @param index - the tile index
+     * @return the width index of the tile
+     */
+    public int getX(int index) {
+        return index % this.getWidth();
+    }
+
+    /**
+     * A method to get the height index of a packed tile index
+     * @param index - the tile index
+     * @return the height index of the tile
+     */
+    public int getY(int index) {
+        return index / this.getWidth();
+    }
+
     /**
      * Sets a tile in a given set of coordinates to a specific type <br>
      * (every tile's default value if empty)
@@ -63,17 +142,65 @@ public class Grid {
      * @throws IndexOutOfBoundsException - if the given point (x, y) is not in the grid
      */
     public void setTileType(int x, int y, GridConstants.TILE_TYPES tile_type) throws IndexOutOfBoundsException {
+        this.updateTile(x, y, null, tile_type);
+    }
+
+    /**
+     * Sets a tile in a given set of coordinates to a specific type, only if it currently has an expected type <br>
+     * (the check and the change are a single step, so marking a tile never overwrites a concurrent edit)
+     * @param x - the width index
+     * @param y - the height index
+     * @param expected - the type the tile must have
+     * @param tile_type - the type to set the tile to
+     * @return true if the tile had the expected type and was set, false otherwise
+     * @throws IndexOutOfBoundsException - if the given point (x, y) is not in the grid
+     */
+    public boolean replaceTileType(int x, int y, GridConstants.TILE_TYPES expected, GridConstants.TILE_TYPES tile_type) throws IndexOutOfBoundsException {
+        return this.updateTile(x, y, expected, tile_type);
+    }
+
+    // A method to set a tile's type if it has the expected type (any type if expected is null), returns true if it was set
+    private boolean updateTile(int x, int y, GridConstants.TILE_TYPES expected, GridConstants.TILE_TYPES tile_type) throws IndexOutOfBoundsException {
         if (!this.isInGrid(x, y))
             throw new IndexOutOfBoundsException("(" + x + ", " + y + ") is not in the grid!");
-        this.grid[x][y] = tile_type;
+        GridConstants.TILE_TYPES previous;
+        long stamp = this.lock.writeLock();
+        try {
+            previous = this.grid[x][y];
+            if (expected != null && previous != expected)
+                return false;
+            int region = this.getRegionIndex(x, y);
+            // bump the region's version if the walkable layout changed
+            if ((previous == GridConstants.TILE_TYPES.WALL) != (tile_type == GridConstants.TILE_TYPES.WALL))
+                this.regionVersions[region] = ++this.version;
+            if (previous != tile_type)
+                this.regionChanges[region] = ++this.changes;
+            this.grid[x][y] = tile_type;
+            // update source / destination if needed
+            if (tile_type == GridConstants.TILE_TYPES.SOURCE)
+                this.source = new int[] {x, y};
+            else if (tile_type == GridConstants.TILE_TYPES.DESTINATION)
+                this.destination = new int[] {x, y};
+            // queue the notification while holding the lock, so notifications are queued in the order of the writes
+            if (previous != tile_type && !this.listeners.isEmpty()) {
+                GridConstants.TILE_TYPES from = previous;
+                this.pendingEvents.add(new PendingEvent(this.version, listener -> listener.tileChanged(x, y, from, tile_type)));
+            }
+        }
+        finally {
+            this.lock.unlockWrite(stamp);
+        }
+        if (previous == tile_type)
+            return true;
+        this.record(x, y, previous);
+        // notify listeners (outside the lock, as listeners read the grid)
+        this.deliverEvents();
         // update visitor log id needed
         if (tile_type == GridConstants.TILE_TYPES.VISITED || tile_type == GridConstants.TILE_TYPES.PATH)
-            this.visitorLog.add(new GridConstants.Visitor(new Point(x, y), tile_type));
-        // update source / destination if needed
-        if (tile_type == GridConstants.TILE_TYPES.SOURCE)
-            this.source = new int[] {x, y};
-        else if (tile_type == GridConstants.TILE_TYPES.DESTINATION)
-            this.destination = new int[] {x, y};
+            synchronized (this.visitorLog) {
+                this.visitorLog.add(new GridConstants.Visitor(new Point(x, y), tile_type));
+            }
+        return true;
     }
 
     /**
@@ -84,9 +211,23 @@ public class Grid {
      * @throws IndexOutOfBoundsException - if the given point (x, y) is not in the grid
      */
     public GridConstants.TILE_TYPES getTileType(int x, int y) {
-        if (!this.isInGrid(x, y))
+        // the tile array is only replaced by a reset, which keeps the dimensions
+        GridConstants.TILE_TYPES[][] tiles = this.grid;
+        if (x < 0 || x >= tiles.length || y < 0 || y >= tiles[0].length)
             throw new IndexOutOfBoundsException("(" + x + ", " + y + ") is not in the grid!");
-        return this.grid[x][y];
+        long stamp = this.lock.tryOptimisticRead();
+        GridConstants.TILE_TYPES tile_type = tiles[x][y];
+        // fall back to a read lock if a writer got in the way
+        if (!this.lock.validate(stamp)) {
+            stamp = this.lock.readLock();
+            try {
+                tile_type = this.grid[x][y];
+            }
+            finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+        return tile_type;
     }
 
     /**
@@ -94,15 +235,293 @@ public class Grid {
      */
     private void setupGrid(int width, int height) {
         // create a new grid and fill it with empty tiles
-        this.grid = new GridConstants.TILE_TYPES[width][height];
-        for (int i = 0; i < this.getWidth(); i++)
-            for (int j = 0; j < this.getHeight(); j++)
-                this.grid[i][j] = GridConstants.TILE_TYPES.EMPTY;
-        // delete source and destination
-        this.source = null;
-        this.destination = null;
-        // create log
-        this.visitorLog = new LinkedList<>();
+        GridConstants.TILE_TYPES[][] tiles = new GridConstants.TILE_TYPES[width][height];
+        for (GridConstants.TILE_TYPES[] column : tiles)
+            Arrays.fill(column, GridConstants.TILE_TYPES.EMPTY);
+        int regionColumns = (width + REGION_SIZE - 1) / REGION_SIZE;
+        int regionRows = (height + REGION_SIZE - 1) / REGION_SIZE;
+        long[] versions = new long[regionColumns * regionRows];
+        long[] regionChanges = new long[versions.length];
+        // swap in the new grid
+        long stamp = this.lock.writeLock();
+        try {
+            this.grid = tiles;
+            // delete source and destination
+            this.source = null;
+            this.destination = null;
+            // mark every region as changed
+            Arrays.fill(versions, ++this.version);
+            Arrays.fill(regionChanges, ++this.changes);
+            this.regionVersions = versions;
+            this.regionChanges = regionChanges;
+            if (!this.listeners.isEmpty())
+                this.pendingEvents.add(new PendingEvent(this.version, GridListener::gridReset));
+        }
+        finally {
+            this.lock.unlockWrite(stamp);
+        }
+        // clear log
+        this.clearVisitorLog();
+        // changes made before the reset are no longer relevant to the open transaction
+        Transaction transaction = this.openTransactions.get() == 0 ? null : this.transactions.get();
+        if (transaction != null) {
+            transaction.reset = true;
+            transaction.clear();
+        }
+        // notify listeners
+        this.deliverEvents();
+    }
+
+    /**
+     * A method to add a listener that will be notified about changes to the grid
+     * @param listener - the listener to add
+     */
+    public void addListener(GridListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * A method to remove a listener from the grid
+     * @param listener - the listener to remove
+     */
+    public void removeListener(GridListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * A method to start a transaction on the calling thread <br>
+     * edits are applied right away, but every tile the thread changes until the transaction is committed
+     * is collected into a single change-set (transactions may be nested, the outermost one collects all changes)
+     */
+    public void beginTransaction() {
+        Transaction transaction = this.transactions.get();
+        if (transaction == null) {
+            this.transactions.set(transaction = new Transaction());
+            this.openTransactions.incrementAndGet();
+        }
+        transaction.depth++;
+    }
+
+    /**
+     * A method to commit the calling thread's transaction, notifying the listeners with its change-set
+     * @return the changes made during the transaction, null if a nested transaction was committed
+     * @throws IllegalStateException - if the calling thread has no open transaction
+     */
+    public GridChangeSet commitTransaction() throws IllegalStateException {
+        Transaction transaction = this.transactions.get();
+        if (transaction == null)
+            throw new IllegalStateException("No transaction to commit!");
+        // nested transactions are part of the outer one
+        if (--transaction.depth > 0)
+            return null;
+        this.transactions.remove();
+        this.openTransactions.decrementAndGet();
+        // collect the touched tiles that differ from their original type
+        int[] touched = transaction.bulkEdits.isEmpty() ? Arrays.copyOf(transaction.touched, transaction.count) : this.mergeBulkEdits(transaction);
+        if (transaction.bulkEdits.isEmpty())
+            Arrays.sort(touched);
+        int[] tiles = new int[touched.length];
+        GridConstants.TILE_TYPES[] previousTypes = new GridConstants.TILE_TYPES[touched.length];
+        GridConstants.TILE_TYPES[] types = new GridConstants.TILE_TYPES[touched.length];
+        int count = 0;
+        for (int tile : touched) {
+            GridConstants.TILE_TYPES tile_type = this.getTileType(this.getX(tile), this.getY(tile));
+            GridConstants.TILE_TYPES original = transaction.bulkEdits.isEmpty() ? transaction.getOriginal(tile) : transaction.merged[tile];
+            if (tile_type == original)
+                continue;
+            tiles[count] = tile;
+            previousTypes[count] = original;
+            types[count++] = tile_type;
+        }
+        int[] regions = new int[count];
+        for (int i = 0; i < count; i++)
+            regions[i] = this.getRegionIndex(this.getX(tiles[i]), this.getY(tiles[i]));
+        regions = Arrays.stream(regions).sorted().distinct().toArray();
+        GridChangeSet changes = new GridChangeSet(this.getWidth(), transaction.reset, Arrays.copyOf(tiles, count),
+                Arrays.copyOf(previousTypes, count), Arrays.copyOf(types, count), regions);
+        // notify listeners
+        if (!this.listeners.isEmpty())
+            this.pendingEvents.add(new PendingEvent(this.getVersion(), listener -> listener.changesCommitted(changes)));
+        this.deliverEvents();
+        return changes;
+    }
+
+    // A method to find the original type of every tile touched by a transaction that made bulk edits,
+    // returns the touched tiles in ascending order (their original types are left in transaction.merged)
+    private int[] mergeBulkEdits(Transaction transaction) {
+        // a bulk edit already went over the whole grid, so a type per tile is affordable here
+        GridConstants.TILE_TYPES[] originals = new GridConstants.TILE_TYPES[this.getWidth() * this.getHeight()];
+        // go back in time, so the type from the first change of every tile is the one left
+        int next = transaction.count;
+        for (int edit = transaction.bulkEdits.size() - 1; edit >= -1; edit--) {
+            int start = edit == -1 ? 0 : transaction.bulkStarts.get(edit);
+            for (; next > start; next--)
+                originals[transaction.touched[next - 1]] = transaction.getOriginal(transaction.touched[next - 1]);
+            if (edit == -1)
+                break;
+            GridChangeSet changes = transaction.bulkEdits.get(edit);
+            for (int i = 0; i < changes.size(); i++)
+                originals[changes.getTile(i)] = changes.getPreviousType(i);
+        }
+        int count = 0;
+        int[] touched = new int[16];
+        for (int tile = 0; tile < originals.length; tile++)
+            if (originals[tile] != null) {
+                if (count == touched.length)
+                    touched = Arrays.copyOf(touched, count * 2);
+                touched[count++] = tile;
+            }
+        transaction.merged = originals;
+        return Arrays.copyOf(touched, count);
+    }
+
+    // A method to deliver the queued notifications to the listeners, in the order they were queued
+    private void deliverEvents() {
+        // nothing to wait for if nothing is queued or being delivered (a queue emptied by another thread stays locked
+        // until its notifications were delivered, so the queue is checked first)
+        if (this.pendingEvents.isEmpty() && !this.deliveryLock.isLocked())
+            return;
+        // a listener that edits the grid leaves its own notifications to the delivery already running
+        if (this.deliveryLock.isHeldByCurrentThread())
+            return;
+        // a single thread delivers at a time, every notification queued before this call is delivered when it returns
+        this.deliveryLock.lock();
+        try {
+            PendingEvent event;
+            while ((event = this.pendingEvents.poll()) != null) {
+                this.deliveredVersion = event.version;
+                for (GridListener listener : this.listeners)
+                    event.notification.accept(listener);
+            }
+        }
+        finally {
+            this.deliveryLock.unlock();
+        }
+    }
+
+    // A method to remember a tile's type before the calling thread's transaction first changed it
+    private void record(int x, int y, GridConstants.TILE_TYPES previous) {
+        // skip the thread local lookup while no thread has a transaction open
+        if (this.openTransactions.get() == 0)
+            return;
+        Transaction transaction = this.transactions.get();
+        if (transaction != null)
+            transaction.record(this.getIndex(x, y), previous);
+    }
+
+    /**
+     * A method to get the layout version of the change a listener is being notified about <br>
+     * (only meaningful inside a GridListener call: the grid may already be ahead of the change being delivered)
+     * @return the version the grid had right after the change being delivered
+     */
+    public long getDeliveredVersion() {
+        return this.deliveredVersion;
+    }
+
+    /**
+     * A method to get an index of the grid's connected regions, kept up to date as the grid changes
+     * @return the connected components of the grid
+     */
+    public synchronized ConnectedComponents getConnectedComponents() {
+        if (this.connectedComponents == null)
+            this.connectedComponents = new ConnectedComponents(this);
+        return this.connectedComponents;
+    }
+
+    /**
+     * A method to get the current version of the grid's layout <br>
+     * (the version changes every time a tile turns into / stops being a wall)
+     * @return the current version of the grid
+     */
+    public long getVersion() {
+        long stamp = this.lock.tryOptimisticRead();
+        long version = this.version;
+        if (!this.lock.validate(stamp)) {
+            stamp = this.lock.readLock();
+            try {
+                version = this.version;
+            }
+            finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+        return version;
+    }
+
+    /**
+     * A method to get the index of the region containing a given set of coordinates
+     * @param x - the width index
+     * @param y - the height index
+     * @return the index of the region containing (x, y)
+     */
+    public int getRegionIndex(int x, int y) {
+        int regionColumns = (this.getWidth() + REGION_SIZE - 1) / REGION_SIZE;
+        return (y / REGION_SIZE) * regionColumns + x / REGION_SIZE;
+    }
+
+    /**
+     * A method to get the version in which a region was last changed
+     * @param region - the index of the region
+     * @return the version of the grid when the region was last changed
+     */
+    public long getRegionVersion(int region) {
+        long stamp = this.lock.tryOptimisticRead();
+        long version = this.regionVersions[region];
+        if (!this.lock.validate(stamp)) {
+            stamp = this.lock.readLock();
+            try {
+                version = this.regionVersions[region];
+            }
+            finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+        return version;
+    }
+
+    /**
+     * A method to take a consistent copy of the whole grid, without blocking writers <br>
+     * (chunks of the grid that didn't change since the last snapshot are shared with it instead of copied)
+     * @return a snapshot of the grid's tiles, source, destination and version
+     */
+    public GridSnapshot snapshot() {
+        GridSnapshot previous = this.lastSnapshot;
+        long stamp = this.lock.tryOptimisticRead();
+        GridSnapshot output = this.copyChunks(previous);
+        // copy again while holding off writers if one got in the way
+        if (!this.lock.validate(stamp)) {
+            stamp = this.lock.readLock();
+            try {
+                output = this.copyChunks(previous);
+            }
+            finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+        this.lastSnapshot = output;
+        return output;
+    }
+
+    // A method to copy the chunks that changed since a previous snapshot into a new snapshot
+    private GridSnapshot copyChunks(GridSnapshot previous) {
+        GridConstants.TILE_TYPES[][] tiles = this.grid;
+        long[] regionChanges = this.regionChanges;
+        int regionColumns = (tiles.length + REGION_SIZE - 1) / REGION_SIZE;
+        GridConstants.TILE_TYPES[][] chunks = new GridConstants.TILE_TYPES[regionChanges.length][];
+        long[] stamps = regionChanges.clone();
+        for (int region = 0; region < chunks.length; region++) {
+            if (previous != null && previous.getChunkStamp(region) == stamps[region]) {
+                chunks[region] = previous.getChunk(region);
+                continue;
+            }
+            chunks[region] = new GridConstants.TILE_TYPES[REGION_SIZE * REGION_SIZE];
+            int startX = (region % regionColumns) * REGION_SIZE;
+            int startY = (region / regionColumns) * REGION_SIZE;
+            for (int x = startX; x < Math.min(tiles.length, startX + REGION_SIZE); x++)
+                for (int y = startY; y < Math.min(tiles[0].length, startY + REGION_SIZE); y++)
+                    chunks[region][(y - startY) * REGION_SIZE + x - startX] = tiles[x][y];
+        }
+        return new GridSnapshot(tiles.length, tiles[0].length, this.version, this.source, this.destination, chunks, stamps);
     }
 
     /**
@@ -142,102 +561,330 @@ public class Grid {
     }
 
     /**
-     * A method to clear any path markings from the grid
+     * A method to clear any path markings from the grid <br>
+     * (runs as a single transaction, see beginTransaction)
+     * @return the changes made, null if called inside an open transaction (the outer one collects them)
+     */
+    public GridChangeSet clearMarkings() {
+        return this.editTiles((x, y, tile_type) -> tile_type == GridConstants.TILE_TYPES.PATH || tile_type == GridConstants.TILE_TYPES.VISITED
+                ? GridConstants.TILE_TYPES.EMPTY : tile_type);
+    }
+
+    // A method to apply an edit to every tile of the grid, a strip of regions at a time under a single lock acquisition <br>
+    // the listeners get one tilesChanged notification per strip instead of one per tile, and the change-set
+    // is built from the strips as they are written (the edit runs as a single transaction, see beginTransaction)
+    // returns the changes made, null if called inside an open transaction (the outer one collects them)
+    private GridChangeSet editTiles(TileEdit edit) {
+        int width = this.getWidth();
+        int height = this.getHeight();
+        int regionColumns = (width + REGION_SIZE - 1) / REGION_SIZE;
+        int regionRows = (height + REGION_SIZE - 1) / REGION_SIZE;
+        // the changed tiles, in ascending order as the strips are walked row by row
+        int[] tiles = new int[64];
+        GridConstants.TILE_TYPES[] previousTypes = new GridConstants.TILE_TYPES[64];
+        GridConstants.TILE_TYPES[] types = new GridConstants.TILE_TYPES[64];
+        int[] regions = new int[regionColumns * regionRows];
+        int count = 0, regionCount = 0;
+        // the regions of the current strip that changed / had their layout changed
+        boolean[] changed = new boolean[regionColumns];
+        boolean[] layoutChanged = new boolean[regionColumns];
+        for (int top = 0; top < height; top += REGION_SIZE) {
+            int stripStart = count, regionStart = regionCount;
+            long stamp = this.lock.writeLock();
+            try {
+                GridConstants.TILE_TYPES[][] grid = this.grid;
+                for (int y = top; y < Math.min(height, top + REGION_SIZE); y++)
+                    for (int x = 0; x < width; x++) {
+                        GridConstants.TILE_TYPES previous = grid[x][y];
+                        GridConstants.TILE_TYPES tile_type = edit.apply(x, y, previous);
+                        if (tile_type == previous)
+                            continue;
+                        grid[x][y] = tile_type;
+                        if (count == tiles.length) {
+                            tiles = Arrays.copyOf(tiles, count * 2);
+                            previousTypes = Arrays.copyOf(previousTypes, count * 2);
+                            types = Arrays.copyOf(types, count * 2);
+                        }
+                        tiles[count] = y * width + x;
+                        previousTypes[count] = previous;
+                        types[count++] = tile_type;
+                        changed[x / REGION_SIZE] = true;
+                        if ((previous == GridConstants.TILE_TYPES.WALL) != (tile_type == GridConstants.TILE_TYPES.WALL))
+                            layoutChanged[x / REGION_SIZE] = true;
+                        // update source / destination if needed
+                        if (tile_type == GridConstants.TILE_TYPES.SOURCE)
+                            this.source = new int[] {x, y};
+                        else if (tile_type == GridConstants.TILE_TYPES.DESTINATION)
+                            this.destination = new int[] {x, y};
+                    }
+                // bump the versions once per region
+                for (int column = 0; column < regionColumns; column++) {
+                    int region = (top / REGION_SIZE) * regionColumns + column;
+                    if (layoutChanged[column])
+                        this.regionVersions[region] = ++this.version;
+                    if (changed[column]) {
+                        this.regionChanges[region] = ++this.changes;
+                        regions[regionCount++] = region;
+                    }
+                    changed[column] = false;
+                    layoutChanged[column] = false;
+                }
+                // queue the strip's notification while holding the lock, so notifications are queued in the order of the writes
+                if (count > stripStart && !this.listeners.isEmpty()) {
+                    GridChangeSet strip = new GridChangeSet(width, false, Arrays.copyOfRange(tiles, stripStart, count),
+                            Arrays.copyOfRange(previousTypes, stripStart, count), Arrays.copyOfRange(types, stripStart, count),
+                            Arrays.copyOfRange(regions, regionStart, regionCount));
+                    this.pendingEvents.add(new PendingEvent(this.version, listener -> listener.tilesChanged(strip)));
+                }
+            }
+            finally {
+                this.lock.unlockWrite(stamp);
+            }
+            // notify listeners (outside the lock, as listeners read the grid)
+            this.deliverEvents();
+            // update visitor log id needed
+            synchronized (this.visitorLog) {
+                for (int i = stripStart; i < count; i++)
+                    if (types[i] == GridConstants.TILE_TYPES.VISITED || types[i] == GridConstants.TILE_TYPES.PATH)
+                        this.visitorLog.add(new GridConstants.Visitor(new Point(this.getX(tiles[i]), this.getY(tiles[i])), types[i]));
+            }
+        }
+        return this.completeBulkEdit(new GridChangeSet(width, false, Arrays.copyOf(tiles, count), Arrays.copyOf(previousTypes, count),
+                Arrays.copyOf(types, count), Arrays.copyOf(regions, regionCount)));
+    }
+
+    /**
+     * Sets a list of tiles to a specific type, only the ones that currently have an expected type <br>
+     * (like calling replaceTileType for every tile in order, but the tiles are changed a batch at a time under
+     * a single lock acquisition, and the listeners get one tilesChanged notification per batch)
+     * @param tiles - the packed indexes of the tiles (see getIndex), in the order they are added to the visitor log
+     * @param expected - the type the tiles must have
+     * @param tile_type - the type to set the tiles to
+     * @return the changes made, null if called inside an open transaction (the outer one collects them)
+     * @throws IndexOutOfBoundsException - if one of the tiles is not in the grid
      */
-    public void clearMarkings() {
-        for (int i = 0; i < this.grid.length; i++)
-            for (int j = 0; j < this.grid[0].length; j++)
-                if (this.grid[i][j] == GridConstants.TILE_TYPES.PATH || this.grid[i][j] == GridConstants.TILE_TYPES.VISITED)
-                    this.grid[i][j] = GridConstants.TILE_TYPES.EMPTY;
+    public GridChangeSet replaceTileTypes(int[] tiles, GridConstants.TILE_TYPES expected, GridConstants.TILE_TYPES tile_type) throws IndexOutOfBoundsException {
+        int width = this.getWidth();
+        for (int tile : tiles)
+            if (tile < 0 || tile >= width * this.getHeight())
+                throw new IndexOutOfBoundsException("Tile " + tile + " is not in the grid!");
+        boolean layoutChange = (expected == GridConstants.TILE_TYPES.WALL) != (tile_type == GridConstants.TILE_TYPES.WALL);
+        // the changed tiles in the order they were changed, and the regions containing them
+        int[] changed = new int[tiles.length];
+        int count = 0;
+        boolean[] touchedRegions = new boolean[this.regionVersions.length];
+        int[] batchRegions = new int[Math.min(tiles.length, BATCH_SIZE)];
+        for (int start = 0; start < tiles.length && expected != tile_type; start += BATCH_SIZE) {
+            int batchStart = count, regionCount = 0;
+            long stamp = this.lock.writeLock();
+            try {
+                GridConstants.TILE_TYPES[][] grid = this.grid;
+                for (int i = start; i < Math.min(tiles.length, start + BATCH_SIZE); i++) {
+                    int x = tiles[i] % width, y = tiles[i] / width;
+                    if (grid[x][y] != expected)
+                        continue;
+                    grid[x][y] = tile_type;
+                    changed[count++] = tiles[i];
+                    int region = this.getRegionIndex(x, y);
+                    if (!touchedRegions[region]) {
+                        touchedRegions[region] = true;
+                        batchRegions[regionCount++] = region;
+                    }
+                    // update source / destination if needed
+                    if (tile_type == GridConstants.TILE_TYPES.SOURCE)
+                        this.source = new int[] {x, y};
+                    else if (tile_type == GridConstants.TILE_TYPES.DESTINATION)
+                        this.destination = new int[] {x, y};
+                }
+                // bump the versions once per region
+                for (int i = 0; i < regionCount; i++) {
+                    if (layoutChange)
+                        this.regionVersions[batchRegions[i]] = ++this.version;
+                    this.regionChanges[batchRegions[i]] = ++this.changes;
+                }
+                // queue the batch's notification while holding the lock, so notifications are queued in the order of the writes
+                if (count > batchStart && !this.listeners.isEmpty()) {
+                    GridChangeSet batch = this.replacementChanges(Arrays.copyOfRange(changed, batchStart, count), expected, tile_type);
+                    this.pendingEvents.add(new PendingEvent(this.version, listener -> listener.tilesChanged(batch)));
+                }
+            }
+            finally {
+                this.lock.unlockWrite(stamp);
+            }
+            // regions may be touched again by the next batch
+            for (int i = 0; i < regionCount; i++)
+                touchedRegions[batchRegions[i]] = false;
+            // notify listeners (outside the lock, as listeners read the grid)
+            this.deliverEvents();
+            // update visitor log id needed
+            if (tile_type == GridConstants.TILE_TYPES.VISITED || tile_type == GridConstants.TILE_TYPES.PATH)
+                synchronized (this.visitorLog) {
+                    for (int i = batchStart; i < count; i++)
+                        this.visitorLog.add(new GridConstants.Visitor(new Point(this.getX(changed[i]), this.getY(changed[i])), tile_type));
+                }
+        }
+        return this.completeBulkEdit(this.replacementChanges(Arrays.copyOf(changed, count), expected, tile_type));
+    }
+
+    // A method to build the change-set of tiles that were all changed from one type to another
+    private GridChangeSet replacementChanges(int[] tiles, GridConstants.TILE_TYPES expected, GridConstants.TILE_TYPES tile_type) {
+        Arrays.sort(tiles);
+        GridConstants.TILE_TYPES[] previousTypes = new GridConstants.TILE_TYPES[tiles.length];
+        GridConstants.TILE_TYPES[] types = new GridConstants.TILE_TYPES[tiles.length];
+        Arrays.fill(previousTypes, expected);
+        Arrays.fill(types, tile_type);
+        int[] regions = new int[tiles.length];
+        for (int i = 0; i < tiles.length; i++)
+            regions[i] = this.getRegionIndex(this.getX(tiles[i]), this.getY(tiles[i]));
+        return new GridChangeSet(this.getWidth(), false, tiles, previousTypes, types, Arrays.stream(regions).sorted().distinct().toArray());
+    }
+
+    // A method to hand the change-set of a bulk edit to the open transaction, or to the listeners if there is none,
+    // returns the changes, null if called inside an open transaction (the outer one collects them)
+    private GridChangeSet completeBulkEdit(GridChangeSet changes) {
+        // inside an open transaction the edit is part of it
+        Transaction transaction = this.openTransactions.get() == 0 ? null : this.transactions.get();
+        if (transaction != null) {
+            transaction.bulkEdits.add(changes);
+            transaction.bulkStarts.add(transaction.count);
+            return null;
+        }
+        // notify listeners
+        if (!this.listeners.isEmpty())
+            this.pendingEvents.add(new PendingEvent(this.getVersion(), listener -> listener.changesCommitted(changes)));
+        this.deliverEvents();
+        return changes;
     }
 
     /**
-     * A method to reset the grid to a empty state
+     * A method to reset the grid to a empty state <br>
+     * (runs as a single transaction, see beginTransaction)
+     * @return the changes made, null if called inside an open transaction (the outer one collects them)
      */
-    public void clearGrid() {
-        this.setupGrid(this.grid.length, this.grid[0].length);
+    public GridChangeSet clearGrid() {
+        GridChangeSet changes;
+        this.beginTransaction();
+        try {
+            this.setupGrid(this.getWidth(), this.getHeight());
+        }
+        finally {
+            changes = this.commitTransaction();
+        }
+        return changes;
     }
 
-    // A method to get neighboring vertexes of a given vertex
-    private LinkedList<int[]> getNeighbourWalls(int[] vertex) {
+    // A method to get the neighboring walls of a given vertex in a maze being built
+    private static LinkedList<int[]> getNeighbourWalls(GridConstants.TILE_TYPES[][] maze, int[] vertex) {
         LinkedList<int[]> output = new LinkedList<>();
         // Right
-        if (vertex[0] + 1 < this.getWidth() && this.getTileType(vertex[0] + 1, vertex[1]) == GridConstants.TILE_TYPES.WALL)
+        if (vertex[0] + 1 < maze.length && maze[vertex[0] + 1][vertex[1]] == GridConstants.TILE_TYPES.WALL)
             output.add(new int[] {vertex[0] + 1, vertex[1]});
         // Left
-        if (vertex[0] > 0 && this.getTileType(vertex[0] - 1, vertex[1]) == GridConstants.TILE_TYPES.WALL)
+        if (vertex[0] > 0 && maze[vertex[0] - 1][vertex[1]] == GridConstants.TILE_TYPES.WALL)
             output.add(new int[] {vertex[0] - 1, vertex[1]});
         // Up
-        if (vertex[1] + 1 < this.getHeight() && this.getTileType(vertex[0], vertex[1] + 1) == GridConstants.TILE_TYPES.WALL)
+        if (vertex[1] + 1 < maze[0].length && maze[vertex[0]][vertex[1] + 1] == GridConstants.TILE_TYPES.WALL)
             output.add(new int[] {vertex[0], vertex[1] + 1});
         // Down
-        if (vertex[1] > 0 && this.getTileType(vertex[0], vertex[1] - 1) == GridConstants.TILE_TYPES.WALL)
+        if (vertex[1] > 0 && maze[vertex[0]][vertex[1] - 1] == GridConstants.TILE_TYPES.WALL)
             output.add(new int[] {vertex[0], vertex[1] - 1});
         return output;
     }
 
     /**
-     * A method to generate a maze on the grid using a version of Prim's algorithm
+     * A method to generate a maze on the grid using a version of Prim's algorithm, with the calling thread's random <br>
+     * (runs as a single transaction, see beginTransaction)
+     * @return the changes made, null if called inside an open transaction (the outer one collects them)
      */
-    public void generateMaze() {
-        // fill the grid with walls
-        for (int i = 0; i < this.getWidth(); i++)
-            for (int j = 0; j < this.getHeight(); j++)
-                this.setTileType(i, j, GridConstants.TILE_TYPES.WALL);
+    public GridChangeSet generateMaze() {
+        return this.generateMaze(UtilityMethods.getRandom());
+    }
+
+    /**
+     * A method to generate a maze on the grid using a version of Prim's algorithm <br>
+     * (runs as a single transaction, see beginTransaction)
+     * @param random - the random to use, the same seed always generates the same maze
+     * @return the changes made, null if called inside an open transaction (the outer one collects them)
+     */
+    public GridChangeSet generateMaze(SplittableRandom random) {
+        // build the maze aside, then write it to the grid as a single bulk edit
+        GridConstants.TILE_TYPES[][] maze = this.buildMaze(random);
+        GridChangeSet changes = this.editTiles((x, y, tile_type) -> maze[x][y]);
+        // the tiles were written by the edit, only the points have to be set in case their tiles didn't change
+        for (int x = 0; x < maze.length; x++)
+            for (int y = 0; y < maze[0].length; y++)
+                if (maze[x][y] == GridConstants.TILE_TYPES.SOURCE)
+                    this.source = new int[] {x, y};
+                else if (maze[x][y] == GridConstants.TILE_TYPES.DESTINATION)
+                    this.destination = new int[] {x, y};
+        return changes;
+    }
+
+    // The maze generation code, returns the tiles of the maze
+    private GridConstants.TILE_TYPES[][] buildMaze(SplittableRandom random) {
+        // fill the maze with walls
+        GridConstants.TILE_TYPES[][] maze = new GridConstants.TILE_TYPES[this.getWidth()][this.getHeight()];
+        for (GridConstants.TILE_TYPES[] column : maze)
+            Arrays.fill(column, GridConstants.TILE_TYPES.WALL);
         // generate a random starting point and set it to empty
-        int[] startPoint = {UtilityMethods.RAND.nextInt(this.getWidth()), UtilityMethods.RAND.nextInt(this.getHeight())};
-        this.setTileType(startPoint[0], startPoint[1], GridConstants.TILE_TYPES.EMPTY);
+        int[] startPoint = {random.nextInt(this.getWidth()), random.nextInt(this.getHeight())};
+        maze[startPoint[0]][startPoint[1]] = GridConstants.TILE_TYPES.EMPTY;
         // create a list of walls and add the starting point's walls to it
-        LinkedList<int[]> walls = new LinkedList<>(this.getNeighbourWalls(startPoint));
+        LinkedList<int[]> walls = new LinkedList<>(getNeighbourWalls(maze, startPoint));
         // save the last wall that was removed to set as destination
         int[] lastWall = null;
         while (!walls.isEmpty()) {
             // pick a random wall from the list and remove it
-            int[] wall = walls.remove(UtilityMethods.RAND.nextInt(walls.size()));
+            int[] wall = walls.remove(random.nextInt(walls.size()));
             // check its neighbour tiles
-            GridConstants.TILE_TYPES up = wall[1] + 1 < this.getHeight() ? this.getTileType(wall[0], wall[1] + 1) : null;
-            GridConstants.TILE_TYPES down = wall[1]> 0 ? this.getTileType(wall[0], wall[1] - 1) : null;
-            GridConstants.TILE_TYPES right = wall[0] + 1 < this.getWidth() ? this.getTileType(wall[0] + 1, wall[1]) : null;
-            GridConstants.TILE_TYPES left = wall[0]> 0 ? this.getTileType(wall[0] - 1, wall[1]) : null;
+            GridConstants.TILE_TYPES up = wall[1] + 1 < this.getHeight() ? maze[wall[0]][wall[1] + 1] : null;
+            GridConstants.TILE_TYPES down = wall[1]> 0 ? maze[wall[0]][wall[1] - 1] : null;
+            GridConstants.TILE_TYPES right = wall[0] + 1 < this.getWidth() ? maze[wall[0] + 1][wall[1]] : null;
+            GridConstants.TILE_TYPES left = wall[0]> 0 ? maze[wall[0] - 1][wall[1]] : null;
             // check if we can create a horizontal path
             if (right != left && (right != null && left != null)) {
-                if (this.getTileType(wall[0] + 1, wall[1]) == GridConstants.TILE_TYPES.WALL)
-                    walls.addAll(this.getNeighbourWalls(lastWall = new int[] {wall[0] + 1, wall[1]}));
-                else walls.addAll(this.getNeighbourWalls(lastWall = new int[] {wall[0] - 1, wall[1]}));
+                if (maze[wall[0] + 1][wall[1]] == GridConstants.TILE_TYPES.WALL)
+                    walls.addAll(getNeighbourWalls(maze, lastWall = new int[] {wall[0] + 1, wall[1]}));
+                else walls.addAll(getNeighbourWalls(maze, lastWall = new int[] {wall[0] - 1, wall[1]}));
 
-                this.setTileType(wall[0] + 1, wall[1], GridConstants.TILE_TYPES.EMPTY);
-                this.setTileType(wall[0] - 1, wall[1], GridConstants.TILE_TYPES.EMPTY);
-                this.setTileType(wall[0], wall[1], GridConstants.TILE_TYPES.EMPTY);
+                maze[wall[0] + 1][wall[1]] = GridConstants.TILE_TYPES.EMPTY;
+                maze[wall[0] - 1][wall[1]] = GridConstants.TILE_TYPES.EMPTY;
+                maze[wall[0]][wall[1]] = GridConstants.TILE_TYPES.EMPTY;
             }
             // check if we can create a vertical path
             if (up != down && (up != null && down != null)) {
-                if (this.getTileType(wall[0], wall[1] + 1) == GridConstants.TILE_TYPES.WALL)
-                    walls.addAll(this.getNeighbourWalls(lastWall = new int[] {wall[0], wall[1] + 1}));
-                else walls.addAll(this.getNeighbourWalls(lastWall = new int[] {wall[0], wall[1] - 1}));
+                if (maze[wall[0]][wall[1] + 1] == GridConstants.TILE_TYPES.WALL)
+                    walls.addAll(getNeighbourWalls(maze, lastWall = new int[] {wall[0], wall[1] + 1}));
+                else walls.addAll(getNeighbourWalls(maze, lastWall = new int[] {wall[0], wall[1] - 1}));
 
-                this.setTileType(wall[0], wall[1] + 1, GridConstants.TILE_TYPES.EMPTY);
-                this.setTileType(wall[0], wall[1] - 1, GridConstants.TILE_TYPES.EMPTY);
-                this.setTileType(wall[0], wall[1], GridConstants.TILE_TYPES.EMPTY);
+                maze[wall[0]][wall[1] + 1] = GridConstants.TILE_TYPES.EMPTY;
+                maze[wall[0]][wall[1] - 1] = GridConstants.TILE_TYPES.EMPTY;
+                maze[wall[0]][wall[1]] = GridConstants.TILE_TYPES.EMPTY;
             }
         }
         // set start point and source and last wall to destination
-        this.setSource(startPoint[0], startPoint[1]);
-        this.setDestination(lastWall[0], lastWall[1]);
+        maze[startPoint[0]][startPoint[1]] = GridConstants.TILE_TYPES.SOURCE;
+        maze[lastWall[0]][lastWall[1]] = GridConstants.TILE_TYPES.DESTINATION;
+        return maze;
     }
 
     /**
      * A method to get of all nodes visited or marked as path
-     * @return the log
+     * @return a copy of the log
      */
     public LinkedList<GridConstants.Visitor> getVisitorLog() {
-        return this.visitorLog;
+        synchronized (this.visitorLog) {
+            return new LinkedList<>(this.visitorLog);
+        }
     }
 
     /**
      * A method to clear the visitor log
      */
     public void clearVisitorLog() {
-        this.visitorLog.clear();
+        synchronized (this.visitorLog) {
+            this.visitorLog.clear();
+        }
     }
 
     @Override
@@ -251,4 +898,124 @@ public class Grid {
         return output.toString();
     }
 
+    /**
+     * A notification waiting to be delivered, with the layout version the grid had right after its change
+     */
+    private static class PendingEvent {
+
+        private final long version;
+        private final Consumer<GridListener> notification;
+
+        public PendingEvent(long version, Consumer<GridListener> notification) {
+            this.version = version;
+            this.notification = notification;
+        }
+
+    }
+
+    /**
+     * A bulk edit, giving the new type of every tile from its current one
+     */
+    private interface TileEdit {
+
+        /**
+         * A method to get the new type of a tile
+         * @param x - the width index
+         * @param y - the height index
+         * @param tile_type - the current type of the tile
+         * @return the type to set the tile to (the current type to leave it as is)
+         */
+        GridConstants.TILE_TYPES apply(int x, int y, GridConstants.TILE_TYPES tile_type);
+
+    }
+
+    /**
+     * The state of a thread's open transaction <br>
+     * only the touched tiles are stored, with their original types in an open addressing hash map
+     */
+    private static class Transaction {
+
+        // The initial number of hash map slots
+        private static final int INITIAL_SLOTS = 32;
+
+        // The number of nested transactions that were not committed yet
+        private int depth;
+
+        // Whether the grid was reset during the transaction
+        private boolean reset;
+
+        // The touched tiles, in the order they were first changed
+        private int[] touched = new int[16];
+        private int count;
+
+        // The hash map slots: the touched tile + 1 (0 marks an empty slot) and its type before it was first changed
+        private int[] keys = new int[INITIAL_SLOTS];
+        private GridConstants.TILE_TYPES[] originals = new GridConstants.TILE_TYPES[INITIAL_SLOTS];
+
+        // The shift mapping a hash to a slot (32 - log2 of the number of slots)
+        private int shift = Integer.numberOfLeadingZeros(INITIAL_SLOTS) + 1;
+
+        // The change-sets of the bulk edits made during the transaction, and the number of touched tiles before each of them
+        private final ArrayList<GridChangeSet> bulkEdits = new ArrayList<>();
+        private final ArrayList<Integer> bulkStarts = new ArrayList<>();
+
+        // The original type of every tile, filled in on commit if bulk edits were made
+        private GridConstants.TILE_TYPES[] merged;
+
+        // A method to find the slot of a tile, or the empty slot it would be put in
+        private int slotOf(int tile) {
+            // fibonacci hashing, the top bits of the product are the best mixed
+            int slot = (tile * 0x9E3779B9) >>> this.shift;
+            while (this.keys[slot] != 0 && this.keys[slot] != tile + 1)
+                slot = (slot + 1) & (this.keys.length - 1);
+            return slot;
+        }
+
+        // A method to remember a tile's type before it was first changed (ignored if the tile was already touched)
+        private void record(int tile, GridConstants.TILE_TYPES previous) {
+            int slot = this.slotOf(tile);
+            if (this.keys[slot] != 0)
+                return;
+            this.keys[slot] = tile + 1;
+            this.originals[slot] = previous;
+            if (this.count == this.touched.length)
+                this.touched = Arrays.copyOf(this.touched, this.count * 2);
+            this.touched[this.count++] = tile;
+            // keep the map at most half full
+            if (2 * this.count > this.keys.length)
+                this.resize(this.keys.length * 2);
+        }
+
+        // A method to get a touched tile's type before it was first changed
+        private GridConstants.TILE_TYPES getOriginal(int tile) {
+            return this.originals[this.slotOf(tile)];
+        }
+
+        // A method to move the entries to a new set of slots
+        private void resize(int slots) {
+            int[] keys = this.keys;
+            GridConstants.TILE_TYPES[] originals = this.originals;
+            this.keys = new int[slots];
+            this.originals = new GridConstants.TILE_TYPES[slots];
+            this.shift = Integer.numberOfLeadingZeros(slots) + 1;
+            for (int i = 0; i < keys.length; i++)
+                if (keys[i] != 0) {
+                    int slot = this.slotOf(keys[i] - 1);
+                    this.keys[slot] = keys[i];
+                    this.originals[slot] = originals[i];
+                }
+        }
+
+        // A method to forget every touched tile
+        private void clear() {
+            this.count = 0;
+            this.bulkEdits.clear();
+            this.bulkStarts.clear();
+            this.keys = new int[INITIAL_SLOTS];
+            this.originals = new GridConstants.TILE_TYPES[INITIAL_SLOTS];
+            this.shift = Integer.numberOfLeadingZeros(INITIAL_SLOTS) + 1;
+        }
+
+    }
+
 }
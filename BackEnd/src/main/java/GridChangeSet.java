@@ -0,0 +1,133 @@
+/**
+ * A class to hold the changes a committed transaction or a bulk edit made to a grid <br>
+ * only tiles whose type differs from the one they had when the transaction began are listed,
+ * ordered by their packed tile index (see Grid.getIndex)
+ */
+public class GridChangeSet {
+
+    // The width of the grid the changes were made on, used to unpack the tiles
+    private final int width;
+
+    // Whether the grid was reset to an empty state during the transaction
+    private final boolean reset;
+
+    // Whether a tile turned into / stopped being a wall
+    private final boolean layoutChanged;
+
+    // The packed indexes of the changed tiles, with their types before and after the transaction
+    private final int[] tiles;
+    private final GridConstants.TILE_TYPES[] previousTypes;
+    private final GridConstants.TILE_TYPES[] types;
+
+    // The regions containing changed tiles
+    private final int[] regions;
+
+    /**
+     * A constructor to create a new change-set (change-sets are created by the grid's transactions and bulk edits)
+     * @param width - the width of the grid
+     * @param reset - whether the grid was reset during the transaction
+     * @param tiles - the packed indexes of the changed tiles, in ascending order
+     * @param previousTypes - the type of each tile before the transaction (after the reset if there was one)
+     * @param types - the type of each tile after the transaction
+     * @param regions - the regions containing changed tiles, in ascending order
+     */
+    GridChangeSet(int width, boolean reset, int[] tiles, GridConstants.TILE_TYPES[] previousTypes, GridConstants.TILE_TYPES[] types, int[] regions) {
+        this.width = width;
+        this.reset = reset;
+        this.tiles = tiles;
+        this.previousTypes = previousTypes;
+        this.types = types;
+        this.regions = regions;
+        boolean layoutChanged = reset;
+        for (int i = 0; i < tiles.length && !layoutChanged; i++)
+            layoutChanged = (previousTypes[i] == GridConstants.TILE_TYPES.WALL) != (types[i] == GridConstants.TILE_TYPES.WALL);
+        this.layoutChanged = layoutChanged;
+    }
+
+    /**
+     * A method to check if the grid was reset to an empty state during the transaction <br>
+     * (if so, the changed tiles are the ones that differ from a empty grid)
+     * @return true if the grid was reset, false otherwise
+     */
+    public boolean isReset() {
+        return this.reset;
+    }
+
+    /**
+     * A method to check if the walkable layout of the grid changed
+     * @return true if the grid was reset or a tile turned into / stopped being a wall, false otherwise
+     */
+    public boolean isLayoutChanged() {
+        return this.layoutChanged;
+    }
+
+    /**
+     * A method to check if the transaction changed anything
+     * @return true if no tile changed and the grid wasn't reset, false otherwise
+     */
+    public boolean isEmpty() {
+        return !this.reset && this.tiles.length == 0;
+    }
+
+    /**
+     * A method to get the number of changed tiles
+     * @return the number of changed tiles
+     */
+    public int size() {
+        return this.tiles.length;
+    }
+
+    /**
+     * A method to get a changed tile
+     * @param i - the position of the tile in the change-set
+     * @return the packed index of the tile
+     */
+    public int getTile(int i) {
+        return this.tiles[i];
+    }
+
+    /**
+     * A method to get the width index of a changed tile
+     * @param i - the position of the tile in the change-set
+     * @return the width index of the tile
+     */
+    public int getX(int i) {
+        return this.tiles[i] % this.width;
+    }
+
+    /**
+     * A method to get the height index of a changed tile
+     * @param i - the position of the tile in the change-set
+     * @return the height index of the tile
+     */
+    public int getY(int i) {
+        return this.tiles[i] / this.width;
+    }
+
+    /**
+     * A method to get the type a changed tile had before the transaction
+     * @param i - the position of the tile in the change-set
+     * @return the previous type of the tile
+     */
+    public GridConstants.TILE_TYPES getPreviousType(int i) {
+        return this.previousTypes[i];
+    }
+
+    /**
+     * A method to get the type a changed tile has after the transaction
+     * @param i - the position of the tile in the change-set
+     * @return the new type of the tile
+     */
+    public GridConstants.TILE_TYPES getType(int i) {
+        return this.types[i];
+    }
+
+    /**
+     * A method to get the regions containing changed tiles (see Grid.getRegionIndex)
+     * @return a copy of the region indexes, in ascending order
+     */
+    public int[] getRegions() {
+        return this.regions.clone();
+    }
+
+}
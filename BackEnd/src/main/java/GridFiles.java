@@ -0,0 +1,106 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A class to load / save grids as text files <br>
+ * two formats are supported, both with one line per row of the grid (the first line is row 0): <br>
+ * - the plain format: '#' for walls, '.' for empty tiles, 'S' for the source and 'D' for the destination <br>
+ * - the MovingAI benchmark format (.map files), starting with a "type" / "height" / "width" / "map" header,
+ * where '.', 'G' and 'S' are traversable and every other character is a wall
+ */
+public class GridFiles {
+
+    /**
+     * A method to load a grid from a file
+     * @param file - the file to load
+     * @return the grid described by the file
+     * @throws IOException - if the file can't be read or is not a valid grid
+     */
+    public static Grid load(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.US_ASCII);
+        // drop trailing empty lines
+        while (!lines.isEmpty() && lines.get(lines.size() - 1).isBlank())
+            lines.remove(lines.size() - 1);
+        boolean movingAI = !lines.isEmpty() && lines.get(0).startsWith("type");
+        List<String> rows = movingAI ? readMovingAIRows(file, lines) : lines;
+        if (rows.isEmpty() || rows.get(0).isEmpty())
+            throw new IOException(file + " has no grid rows!");
+        int width = rows.get(0).length();
+        Grid grid = new Grid(width, rows.size());
+        for (int y = 0; y < rows.size(); y++) {
+            String row = rows.get(y);
+            if (row.length() != width)
+                throw new IOException(file + ": row " + y + " has " + row.length() + " tiles, expected " + width + "!");
+            for (int x = 0; x < width; x++) {
+                char tile = row.charAt(x);
+                if (movingAI) {
+                    if (tile != '.' && tile != 'G' && tile != 'S')
+                        grid.setTileType(x, y, GridConstants.TILE_TYPES.WALL);
+                    continue;
+                }
+                switch (tile) {
+                    case '#' -> grid.setTileType(x, y, GridConstants.TILE_TYPES.WALL);
+                    case 'S' -> grid.setSource(x, y);
+                    case 'D' -> grid.setDestination(x, y);
+                    case '.' -> {
+                    }
+                    default -> throw new IOException(file + ": unknown tile '" + tile + "' in (" + x + ", " + y + ")!");
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * A method to save a grid to a file in the plain format (path markings are saved as empty tiles)
+     * @param grid - the grid to save
+     * @param file - the file to write
+     * @throws IOException - if the file can't be written
+     */
+    public static void save(Grid grid, Path file) throws IOException {
+        List<String> rows = new ArrayList<>(grid.getHeight());
+        StringBuilder row = new StringBuilder(grid.getWidth());
+        for (int y = 0; y < grid.getHeight(); y++) {
+            row.setLength(0);
+            for (int x = 0; x < grid.getWidth(); x++)
+                switch (grid.getTileType(x, y)) {
+                    case WALL -> row.append('#');
+                    case SOURCE -> row.append('S');
+                    case DESTINATION -> row.append('D');
+                    default -> row.append('.');
+                }
+            rows.add(row.toString());
+        }
+        Files.write(file, rows, StandardCharsets.US_ASCII);
+    }
+
+    // A method to get the rows of a MovingAI map, checking them against its header
+    private static List<String> readMovingAIRows(Path file, List<String> lines) throws IOException {
+        int width = -1, height = -1, start = -1;
+        for (int i = 0; i < lines.size() && start == -1; i++) {
+            String[] words = lines.get(i).trim().split("\\s+");
+            try {
+                switch (words[0]) {
+                    case "height" -> height = Integer.parseInt(words[1]);
+                    case "width" -> width = Integer.parseInt(words[1]);
+                    case "map" -> start = i + 1;
+                }
+            }
+            catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IOException(file + ": malformed header line '" + lines.get(i) + "'!");
+            }
+        }
+        if (width <= 0 || height <= 0 || start == -1)
+            throw new IOException(file + ": missing width / height / map header!");
+        if (lines.size() - start != height)
+            throw new IOException(file + ": expected " + height + " rows, found " + (lines.size() - start) + "!");
+        if (lines.get(start).length() != width)
+            throw new IOException(file + ": expected rows of " + width + " tiles!");
+        return new ArrayList<>(lines.subList(start, lines.size()));
+    }
+
+}
@@ -0,0 +1,37 @@
+/**
+ * A listener that is notified about changes made to a grid
+ */
+public interface GridListener {
+
+    /**
+     * Called after a tile's type changed
+     * @param x - the width index of the tile
+     * @param y - the height index of the tile
+     * @param previous - the type the tile had before the change
+     * @param current - the type the tile has now
+     */
+    void tileChanged(int x, int y, GridConstants.TILE_TYPES previous, GridConstants.TILE_TYPES current);
+
+    /**
+     * Called after a bulk edit (see Grid.clearMarkings / Grid.generateMaze) changed a group of tiles at once,
+     * instead of calling tileChanged for each of them (calls tileChanged for every changed tile by default)
+     * @param changes - the changed tiles, with their types before and after the edit
+     */
+    default void tilesChanged(GridChangeSet changes) {
+        for (int i = 0; i < changes.size(); i++)
+            this.tileChanged(changes.getX(i), changes.getY(i), changes.getPreviousType(i), changes.getType(i));
+    }
+
+    /**
+     * Called after the whole grid was reset to an empty state
+     */
+    void gridReset();
+
+    /**
+     * Called after a transaction was committed, with every change it made (does nothing by default)
+     * @param changes - the change-set of the transaction
+     */
+    default void changesCommitted(GridChangeSet changes) {
+    }
+
+}
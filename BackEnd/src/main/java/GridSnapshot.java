@@ -0,0 +1,120 @@
+/**
+ * An immutable copy of a grid, taken at a single version of it <br>
+ * the tiles are stored in square chunks (one per region of the grid), chunks that didn't change between
+ * snapshots are shared instead of copied
+ */
+public class GridSnapshot {
+
+    // The dimensions of the grid
+    private final int width;
+    private final int height;
+
+    // The version of the grid's layout the snapshot was taken at
+    private final long version;
+
+    // Source and destination points
+    private final int[] source;
+    private final int[] destination;
+
+    // The tiles of every region, row by row
+    private final GridConstants.TILE_TYPES[][] chunks;
+
+    // The last change of every region when the snapshot was taken
+    private final long[] chunkStamps;
+
+    /**
+     * A constructor to create a new snapshot (snapshots are taken by Grid.snapshot)
+     * @param width - the width of the grid
+     * @param height - the height of the grid
+     * @param version - the version of the grid's layout
+     * @param source - the source point, null if not set
+     * @param destination - the destination point, null if not set
+     * @param chunks - the tiles of every region
+     * @param chunkStamps - the last change of every region
+     */
+    GridSnapshot(int width, int height, long version, int[] source, int[] destination, GridConstants.TILE_TYPES[][] chunks, long[] chunkStamps) {
+        this.width = width;
+        this.height = height;
+        this.version = version;
+        this.source = source == null ? null : source.clone();
+        this.destination = destination == null ? null : destination.clone();
+        this.chunks = chunks;
+        this.chunkStamps = chunkStamps;
+    }
+
+    /**
+     * A method to get the width of the grid
+     * @return the width of the grid
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * A method to get the height of the grid
+     * @return the height of the grid
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * A method to get the version of the grid's layout the snapshot was taken at
+     * @return the version of the grid
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * A method to check if a given set of coordinates is in the grid
+     * @param x - the width index
+     * @param y - the height index
+     * @return true if (x, y) is in the grid, false otherwise
+     */
+    public boolean isInGrid(int x, int y) {
+        return x >= 0 && x < this.width && y >= 0 && y < this.height;
+    }
+
+    /**
+     * Returns the type of the cell in the given set of coordinates
+     * @param x - the width index
+     * @param y - the height index
+     * @return the type of the cell in the (x, y) location in the grid
+     * @throws IndexOutOfBoundsException - if the given point (x, y) is not in the grid
+     */
+    public GridConstants.TILE_TYPES getTileType(int x, int y) throws IndexOutOfBoundsException {
+        if (!this.isInGrid(x, y))
+            throw new IndexOutOfBoundsException("(" + x + ", " + y + ") is not in the grid!");
+        int regionColumns = (this.width + Grid.REGION_SIZE - 1) / Grid.REGION_SIZE;
+        int region = (y / Grid.REGION_SIZE) * regionColumns + x / Grid.REGION_SIZE;
+        return this.chunks[region][(y % Grid.REGION_SIZE) * Grid.REGION_SIZE + x % Grid.REGION_SIZE];
+    }
+
+    /**
+     * A method to get the source point
+     * @return the source point, null if not set
+     */
+    public int[] getSource() {
+        return this.source == null ? null : this.source.clone();
+    }
+
+    /**
+     * A method to get the destination point
+     * @return the destination point, null if not set
+     */
+    public int[] getDestination() {
+        return this.destination == null ? null : this.destination.clone();
+    }
+
+    // A method to get the tiles of a region, shared with the next snapshot if the region doesn't change
+    GridConstants.TILE_TYPES[] getChunk(int region) {
+        return this.chunks[region];
+    }
+
+    // A method to get the last change of a region when the snapshot was taken
+    long getChunkStamp(int region) {
+        return this.chunkStamps[region];
+    }
+
+}
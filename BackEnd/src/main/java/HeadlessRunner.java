@@ -0,0 +1,584 @@
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A headless entry point to the pathfinding backend, answering batches of queries on a grid loaded from a file <br>
+ * queries are read one per line ("sourceX sourceY destinationX destinationY [ALGORITHM]") from stdin or from
+ * clients of a local socket, and answered in order as CSV lines or length-prefixed binary frames <br>
+ * responses are batched while more queries are already waiting, and the process and its buffers are reused
+ * across queries so the JIT stays warm <br>
+ * queries never change the grid: they are searched on a snapshot of it (taken again once its layout changes) by the
+ * runner's own versions of the algorithms, whose distances, parents and queues are allocated once and reused,
+ * a generation stamp telling which entries belong to the current query <br>
+ * BFS, PARALLEL_BFS and DIJKSTRA run a BFS (with single step costs they find the same paths), ASTAR and IDA_STAR
+ * run an A* with the manhattan heuristic (the runner's state is allocated up front, so IDA*'s memory bound gives
+ * nothing here), DFS, THETA_STAR and LAZY_THETA_STAR run their own algorithm
+ */
+public class HeadlessRunner {
+
+    // the available response formats
+    public enum FORMAT {
+        CSV,
+        BINARY
+    }
+
+    // the status of a response
+    private static final byte FOUND = 0;
+    private static final byte NOT_FOUND = 1;
+    private static final byte ERROR = 2;
+
+    // the search directions, in the order the grid algorithms expand them (UP, DOWN, LEFT, RIGHT)
+    private static final int[] DX = {0, 0, -1, 1};
+    private static final int[] DY = {1, -1, 0, 0};
+
+    // the neighbour offsets of Theta*, in the order ThetaStar expands them (orthogonal neighbours first)
+    private static final int[] ANY_ANGLE_DX = {1, -1, 0, 0, 1, 1, -1, -1};
+    private static final int[] ANY_ANGLE_DY = {0, 0, 1, -1, 1, -1, 1, -1};
+
+    // The grid queries are answered on
+    private final Grid grid;
+
+    // The algorithm used by queries that don't name one
+    private final PathfindingAlgorithms.ALGORITHM algorithm;
+
+    // The response format
+    private final FORMAT format;
+
+    // Pooled buffers, reused by every response
+    private ByteBuffer output;
+    private final StringBuilder line;
+
+    // The snapshot queries are searched on
+    private GridSnapshot snapshot;
+
+    // The search state, reused by every query: a tile is reached / closed in the current query only if its stamp
+    // is the current generation, its parent and distance are only valid if it was reached
+    private int generation;
+    private final int[] stamps;
+    private final int[] closedStamps;
+    private final int[] parents;
+    private final double[] distances;
+
+    // The BFS queue / DFS stack, the DFS's next direction and direction order at every depth, and the best-first open set
+    private final int[] queue;
+    private final byte[] nextDirections;
+    private final byte[] orders;
+    private final Heap open;
+
+    /**
+     * A constructor to create a new runner
+     * @param grid - the grid to answer queries on
+     * @param algorithm - the algorithm used by queries that don't name one
+     * @param format - the response format
+     */
+    public HeadlessRunner(Grid grid, PathfindingAlgorithms.ALGORITHM algorithm, FORMAT format) {
+        this.grid = grid;
+        this.algorithm = algorithm;
+        this.format = format;
+        this.output = ByteBuffer.allocate(1 << 16);
+        this.line = new StringBuilder();
+        // every query brings its own source and destination, the searches only tell walls apart from other tiles
+        int tiles = grid.getWidth() * grid.getHeight();
+        this.stamps = new int[tiles];
+        this.closedStamps = new int[tiles];
+        this.parents = new int[tiles];
+        this.distances = new double[tiles];
+        this.queue = new int[tiles];
+        this.nextDirections = new byte[tiles];
+        this.orders = new byte[4 * tiles];
+        this.open = new Heap();
+    }
+
+    /**
+     * A method to find a path between 2 tiles, without changing the grid
+     * @param source - the tile to start from
+     * @param destination - the tile to reach
+     * @param algorithm - the algorithm to use
+     * @return the path found, null otherwise
+     * @throws IndexOutOfBoundsException - if one of the tiles is not in the grid
+     */
+    public PathResult query(int[] source, int[] destination, PathfindingAlgorithms.ALGORITHM algorithm) throws IndexOutOfBoundsException {
+        if (!this.grid.isInGrid(source[0], source[1]) || !this.grid.isInGrid(destination[0], destination[1]))
+            throw new IndexOutOfBoundsException("Query tiles are not in the grid!");
+        // search the layout the grid has now, reusing the last snapshot if the layout didn't change since
+        if (this.snapshot == null || this.snapshot.getVersion() != this.grid.getVersion())
+            this.snapshot = this.grid.snapshot();
+        if (!this.isTraversable(source[0], source[1]) || !this.isTraversable(destination[0], destination[1]))
+            return null;
+        // a tile is its own path, no search needed
+        if (Arrays.equals(source, destination))
+            return new PathResult(List.of(this.grid.getIndex(source[0], source[1])), this.grid.getWidth());
+        int from = this.grid.getIndex(source[0], source[1]);
+        int to = this.grid.getIndex(destination[0], destination[1]);
+        // start a new generation, so every tile is unreached without clearing the state
+        if (++this.generation == Integer.MAX_VALUE) {
+            Arrays.fill(this.stamps, 0);
+            Arrays.fill(this.closedStamps, 0);
+            this.generation = 1;
+        }
+        return switch (algorithm) {
+            case BFS, PARALLEL_BFS, DIJKSTRA -> this.BFS(from, to);
+            case ASTAR, IDA_STAR -> this.AStar(from, to);
+            case DFS -> this.DFS(from, to);
+            case THETA_STAR -> this.ThetaStar(from, to, false);
+            case LAZY_THETA_STAR -> this.ThetaStar(from, to, true);
+        };
+    }
+
+    // A method to check if a tile of the snapshot can be traversed
+    private boolean isTraversable(int x, int y) {
+        return this.snapshot.isInGrid(x, y) && this.snapshot.getTileType(x, y) != GridConstants.TILE_TYPES.WALL;
+    }
+
+    // A method to mark a tile as reached in the current query
+    private void reach(int tile, int parent, double distance) {
+        this.stamps[tile] = this.generation;
+        this.parents[tile] = parent;
+        this.distances[tile] = distance;
+    }
+
+    // A method to check if a tile was reached in the current query
+    private boolean isReached(int tile) {
+        return this.stamps[tile] == this.generation;
+    }
+
+    // A method to check if a tile was expanded in the current query
+    private boolean isClosed(int tile) {
+        return this.closedStamps[tile] == this.generation;
+    }
+
+    // A method to compute the euclidean distance between 2 tiles
+    private double distance(int tile1, int tile2) {
+        return Math.hypot(this.grid.getX(tile1) - this.grid.getX(tile2), this.grid.getY(tile1) - this.grid.getY(tile2));
+    }
+
+    // the BFS code, expanding the neighbours in the same order as PathfindingAlgorithms.BFS
+    private PathResult BFS(int source, int destination) {
+        int head = 0, tail = 0;
+        this.reach(source, source, 0);
+        this.queue[tail++] = source;
+        while (head < tail) {
+            int current = this.queue[head++];
+            if (current == destination)
+                return this.tracePath(source, destination);
+            int x = this.grid.getX(current);
+            int y = this.grid.getY(current);
+            for (int direction = 0; direction < DX.length; direction++) {
+                if (!this.isTraversable(x + DX[direction], y + DY[direction]))
+                    continue;
+                int neighbor = this.grid.getIndex(x + DX[direction], y + DY[direction]);
+                if (this.isReached(neighbor))
+                    continue;
+                this.reach(neighbor, current, this.distances[current] + 1);
+                this.queue[tail++] = neighbor;
+            }
+        }
+        return null;
+    }
+
+    // the A* code, with the manhattan distance as heuristic
+    private PathResult AStar(int source, int destination) {
+        this.open.clear();
+        this.reach(source, source, 0);
+        this.open.add(0, source);
+        int destinationX = this.grid.getX(destination);
+        int destinationY = this.grid.getY(destination);
+        while (!this.open.isEmpty()) {
+            int current = this.open.poll();
+            // skip tiles that were already expanded
+            if (this.isClosed(current))
+                continue;
+            this.closedStamps[current] = this.generation;
+            if (current == destination)
+                return this.tracePath(source, destination);
+            int x = this.grid.getX(current);
+            int y = this.grid.getY(current);
+            for (int direction = 0; direction < DX.length; direction++) {
+                int nx = x + DX[direction];
+                int ny = y + DY[direction];
+                if (!this.isTraversable(nx, ny))
+                    continue;
+                int neighbor = this.grid.getIndex(nx, ny);
+                double alt = this.distances[current] + 1;
+                if (!this.isReached(neighbor) || alt < this.distances[neighbor]) {
+                    this.reach(neighbor, current, alt);
+                    this.open.add(alt + Math.abs(nx - destinationX) + Math.abs(ny - destinationY), neighbor);
+                }
+            }
+        }
+        return null;
+    }
+
+    // the DFS code, trying the neighbours of every tile in a random order like PathfindingAlgorithms.DFS
+    // (the stack holds the current path, the depth of a tile is its distance along it)
+    private PathResult DFS(int source, int destination) {
+        SplittableRandom random = UtilityMethods.getRandom();
+        int depth = 0;
+        this.reach(source, source, 0);
+        this.queue[0] = source;
+        this.shuffleDirections(0, random);
+        while (depth >= 0) {
+            int current = this.queue[depth];
+            if (current == destination)
+                return this.tracePath(source, destination);
+            // go back once every direction was tried
+            if (this.nextDirections[depth] == DX.length) {
+                depth--;
+                continue;
+            }
+            int direction = this.orders[4 * depth + this.nextDirections[depth]++];
+            int nx = this.grid.getX(current) + DX[direction];
+            int ny = this.grid.getY(current) + DY[direction];
+            if (!this.isTraversable(nx, ny) || this.isReached(this.grid.getIndex(nx, ny)))
+                continue;
+            this.reach(this.grid.getIndex(nx, ny), current, depth + 1);
+            this.queue[++depth] = this.grid.getIndex(nx, ny);
+            this.shuffleDirections(depth, random);
+        }
+        return null;
+    }
+
+    // A method to pick a random direction order for a depth of the DFS stack
+    private void shuffleDirections(int depth, SplittableRandom random) {
+        this.nextDirections[depth] = 0;
+        for (int i = 0; i < DX.length; i++) {
+            int j = random.nextInt(i + 1);
+            this.orders[4 * depth + i] = this.orders[4 * depth + j];
+            this.orders[4 * depth + j] = (byte) i;
+        }
+    }
+
+    // the Theta* / Lazy Theta* code, like ThetaStar.search
+    private PathResult ThetaStar(int source, int destination, boolean lazy) {
+        this.open.clear();
+        this.reach(source, source, 0);
+        this.open.add(this.distance(source, destination), source);
+        while (!this.open.isEmpty()) {
+            int current = this.open.poll();
+            // skip tiles that were already expanded
+            if (this.isClosed(current))
+                continue;
+            this.closedStamps[current] = this.generation;
+            int x = this.grid.getX(current);
+            int y = this.grid.getY(current);
+            int parent = this.parents[current];
+            // lazy theta* assumed line of sight when the tile was generated, fix its parent if there is none
+            if (lazy && !ThetaStar.lineOfSight(this.snapshot, this.grid.getX(parent), this.grid.getY(parent), x, y)) {
+                this.distances[current] = Double.POSITIVE_INFINITY;
+                for (int direction = 0; direction < ANY_ANGLE_DX.length; direction++) {
+                    if (!ThetaStar.canMove(this.snapshot, x, y, ANY_ANGLE_DX[direction], ANY_ANGLE_DY[direction]))
+                        continue;
+                    int neighbor = this.grid.getIndex(x + ANY_ANGLE_DX[direction], y + ANY_ANGLE_DY[direction]);
+                    double alt = this.distances[neighbor] + this.distance(neighbor, current);
+                    if (this.isClosed(neighbor) && alt < this.distances[current]) {
+                        this.distances[current] = alt;
+                        this.parents[current] = neighbor;
+                    }
+                }
+                parent = this.parents[current];
+            }
+            if (current == destination)
+                return this.tracePath(source, destination);
+            for (int direction = 0; direction < ANY_ANGLE_DX.length; direction++) {
+                if (!ThetaStar.canMove(this.snapshot, x, y, ANY_ANGLE_DX[direction], ANY_ANGLE_DY[direction]))
+                    continue;
+                int neighbor = this.grid.getIndex(x + ANY_ANGLE_DX[direction], y + ANY_ANGLE_DY[direction]);
+                if (this.isClosed(neighbor))
+                    continue;
+                // try to reach the neighbor straight from the current tile's parent
+                int from = parent;
+                if (!lazy && !ThetaStar.lineOfSight(this.snapshot, this.grid.getX(parent), this.grid.getY(parent), x + ANY_ANGLE_DX[direction], y + ANY_ANGLE_DY[direction]))
+                    from = current;
+                double alt = this.distances[from] + this.distance(from, neighbor);
+                if (!this.isReached(neighbor) || alt < this.distances[neighbor]) {
+                    this.reach(neighbor, from, alt);
+                    this.open.add(alt + this.distance(neighbor, destination), neighbor);
+                }
+            }
+        }
+        return null;
+    }
+
+    // A method to collect the path from the parents, from the source to the destination
+    private PathResult tracePath(int source, int destination) {
+        int length = 1;
+        for (int tile = destination; tile != source; tile = this.parents[tile])
+            length++;
+        int[] tiles = new int[length];
+        int tile = destination;
+        for (int i = length - 1; i >= 0; i--) {
+            tiles[i] = tile;
+            tile = this.parents[tile];
+        }
+        return new PathResult(tiles, this.distances[destination], this.grid.getWidth());
+    }
+
+    /**
+     * A method to run random queries, letting the JIT compile the search code before real queries arrive
+     * @param count - the number of queries to run
+     */
+    public void warmUp(int count) {
+        SplittableRandom random = UtilityMethods.getRandom();
+        for (int i = 0; i < count; i++) {
+            int[] source = {random.nextInt(this.grid.getWidth()), random.nextInt(this.grid.getHeight())};
+            int[] destination = {random.nextInt(this.grid.getWidth()), random.nextInt(this.grid.getHeight())};
+            this.query(source, destination, this.algorithm);
+        }
+    }
+
+    /**
+     * A method to answer queries until the input ends
+     * @param input - the queries, one per line (anything after a '#' is a comment, empty lines are skipped)
+     * @param channel - the channel to write the responses to
+     * @throws IOException - if reading the queries or writing the responses fails
+     */
+    public void serve(BufferedReader input, WritableByteChannel channel) throws IOException {
+        this.output.clear();
+        if (this.format == FORMAT.CSV) {
+            this.line.setLength(0);
+            this.line.append("query,algorithm,status,nanos,cost,path\n");
+            this.writeLine(channel);
+        }
+        int index = 0;
+        String request;
+        while ((request = input.readLine()) != null) {
+            int comment = request.indexOf('#');
+            request = (comment == -1 ? request : request.substring(0, comment)).trim();
+            if (request.isEmpty())
+                continue;
+            this.answer(index++, request, channel);
+            // keep batching responses while more queries are already waiting
+            if (!input.ready())
+                this.flush(channel);
+        }
+        this.flush(channel);
+    }
+
+    // A method to parse a query, run it and write its response
+    private void answer(int index, String request, WritableByteChannel channel) throws IOException {
+        PathfindingAlgorithms.ALGORITHM algorithm = this.algorithm;
+        PathResult result;
+        long nanos;
+        try {
+            String[] words = request.split("\\s+");
+            if (words.length != 4 && words.length != 5)
+                throw new IllegalArgumentException("expected 'sourceX sourceY destinationX destinationY [ALGORITHM]'");
+            int[] source = {Integer.parseInt(words[0]), Integer.parseInt(words[1])};
+            int[] destination = {Integer.parseInt(words[2]), Integer.parseInt(words[3])};
+            if (words.length == 5)
+                algorithm = PathfindingAlgorithms.ALGORITHM.valueOf(words[4].toUpperCase());
+            long start = System.nanoTime();
+            result = this.query(source, destination, algorithm);
+            nanos = System.nanoTime() - start;
+        }
+        catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            this.writeError(index, algorithm, e.getMessage(), channel);
+            return;
+        }
+        if (this.format == FORMAT.CSV)
+            this.writeCSV(index, algorithm, result, nanos, channel);
+        else this.writeBinary(index, result, nanos, channel);
+    }
+
+    // A method to write a response as a CSV line: query,algorithm,status,nanos,cost,path (path tiles as "x:y", space separated)
+    private void writeCSV(int index, PathfindingAlgorithms.ALGORITHM algorithm, PathResult result, long nanos, WritableByteChannel channel) throws IOException {
+        this.line.setLength(0);
+        this.line.append(index).append(',').append(algorithm).append(',').append(result != null ? "FOUND" : "NOT_FOUND")
+                .append(',').append(nanos).append(',').append(result != null ? result.getCost() : -1).append(',');
+        if (result != null)
+            for (int i = 0; i < result.getLength(); i++) {
+                if (i > 0)
+                    this.line.append(' ');
+                this.line.append(result.getX(i)).append(':').append(result.getY(i));
+            }
+        this.line.append('\n');
+        this.writeLine(channel);
+    }
+
+    // A method to write a response as a binary frame:
+    // int length (of the rest of the frame), int query, byte status, long nanos, double cost, int tile count, int packed tiles...
+    private void writeBinary(int index, PathResult result, long nanos, WritableByteChannel channel) throws IOException {
+        int tiles = result != null ? result.getLength() : 0;
+        int length = Integer.BYTES + 1 + Long.BYTES + Double.BYTES + Integer.BYTES + tiles * Integer.BYTES;
+        this.reserve(Integer.BYTES + length, channel);
+        this.output.putInt(length).putInt(index).put(result != null ? FOUND : NOT_FOUND).putLong(nanos)
+                .putDouble(result != null ? result.getCost() : -1).putInt(tiles);
+        for (int i = 0; i < tiles; i++)
+            this.output.putInt(result.getTile(i));
+    }
+
+    // A method to write a response for a query that could not be run (binary frames carry the message as UTF-8 instead of tiles)
+    private void writeError(int index, PathfindingAlgorithms.ALGORITHM algorithm, String message, WritableByteChannel channel) throws IOException {
+        if (this.format == FORMAT.CSV) {
+            this.line.setLength(0);
+            this.line.append(index).append(',').append(algorithm).append(",ERROR,0,-1,").append(String.valueOf(message).replace(',', ';')).append('\n');
+            this.writeLine(channel);
+            return;
+        }
+        byte[] bytes = String.valueOf(message).getBytes(StandardCharsets.UTF_8);
+        int length = Integer.BYTES + 1 + Long.BYTES + Double.BYTES + Integer.BYTES + bytes.length;
+        this.reserve(Integer.BYTES + length, channel);
+        this.output.putInt(length).putInt(index).put(ERROR).putLong(0).putDouble(-1).putInt(bytes.length).put(bytes);
+    }
+
+    // A method to copy the pooled line into the output buffer (CSV lines are plain ASCII)
+    private void writeLine(WritableByteChannel channel) throws IOException {
+        this.reserve(this.line.length(), channel);
+        for (int i = 0; i < this.line.length(); i++)
+            this.output.put((byte) this.line.charAt(i));
+    }
+
+    // A method to make room for a given number of bytes in the output buffer, flushing or growing it if needed
+    private void reserve(int bytes, WritableByteChannel channel) throws IOException {
+        if (this.output.remaining() >= bytes)
+            return;
+        this.flush(channel);
+        if (this.output.capacity() < bytes)
+            this.output = ByteBuffer.allocate(Integer.highestOneBit(bytes) << 1);
+    }
+
+    // A method to write the buffered responses to a channel
+    private void flush(WritableByteChannel channel) throws IOException {
+        this.output.flip();
+        while (this.output.hasRemaining())
+            channel.write(this.output);
+        this.output.clear();
+    }
+
+    /**
+     * A binary heap of tiles ordered by a priority, reused by every query <br>
+     * a tile is added again when its priority drops instead of being moved, stale entries are skipped by the search
+     */
+    private static class Heap {
+
+        private double[] priorities = new double[64];
+        private int[] tiles = new int[64];
+        private int size;
+
+        /**
+         * A method to remove all entries
+         */
+        public void clear() {
+            this.size = 0;
+        }
+
+        /**
+         * A method to check if the heap is empty
+         * @return true if there are no entries, false otherwise
+         */
+        public boolean isEmpty() {
+            return this.size == 0;
+        }
+
+        /**
+         * A method to add a tile
+         * @param priority - the priority of the tile, smaller comes first
+         * @param tile - the tile
+         */
+        public void add(double priority, int tile) {
+            if (this.size == this.tiles.length) {
+                this.priorities = Arrays.copyOf(this.priorities, this.size * 2);
+                this.tiles = Arrays.copyOf(this.tiles, this.size * 2);
+            }
+            // move the new entry up from the last slot
+            int slot = this.size++;
+            while (slot > 0 && this.priorities[(slot - 1) / 2] > priority) {
+                this.priorities[slot] = this.priorities[(slot - 1) / 2];
+                this.tiles[slot] = this.tiles[(slot - 1) / 2];
+                slot = (slot - 1) / 2;
+            }
+            this.priorities[slot] = priority;
+            this.tiles[slot] = tile;
+        }
+
+        /**
+         * A method to remove the tile with the smallest priority
+         * @return the tile
+         */
+        public int poll() {
+            int output = this.tiles[0];
+            double priority = this.priorities[--this.size];
+            int tile = this.tiles[this.size];
+            // move the last entry down from the root
+            int slot = 0;
+            while (2 * slot + 1 < this.size) {
+                int child = 2 * slot + 1;
+                if (child + 1 < this.size && this.priorities[child + 1] < this.priorities[child])
+                    child++;
+                if (this.priorities[child] >= priority)
+                    break;
+                this.priorities[slot] = this.priorities[child];
+                this.tiles[slot] = this.tiles[child];
+                slot = child;
+            }
+            this.priorities[slot] = priority;
+            this.tiles[slot] = tile;
+            return output;
+        }
+
+    }
+
+    /**
+     * The headless entry point <br>
+     * usage: HeadlessRunner gridFile [--algorithm NAME] [--format csv|binary] [--port PORT] [--warmup COUNT] <br>
+     * without a port, queries are read from stdin and answered on stdout, with a port, clients of
+     * 127.0.0.1:PORT are served one after the other
+     * @param args - the command line arguments
+     * @throws IOException - if the grid can't be loaded or the server can't be started
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || args.length % 2 == 0) {
+            System.err.println("usage: HeadlessRunner gridFile [--algorithm NAME] [--format csv|binary] [--port PORT] [--warmup COUNT]");
+            System.exit(1);
+        }
+        PathfindingAlgorithms.ALGORITHM algorithm = PathfindingAlgorithms.ALGORITHM.ASTAR;
+        FORMAT format = FORMAT.CSV;
+        int port = -1, warmup = 0;
+        for (int i = 1; i < args.length; i += 2) {
+            switch (args[i]) {
+                case "--algorithm" -> algorithm = PathfindingAlgorithms.ALGORITHM.valueOf(args[i + 1].toUpperCase());
+                case "--format" -> format = FORMAT.valueOf(args[i + 1].toUpperCase());
+                case "--port" -> port = Integer.parseInt(args[i + 1]);
+                case "--warmup" -> warmup = Integer.parseInt(args[i + 1]);
+                default -> {
+                    System.err.println("unknown option " + args[i]);
+                    System.exit(1);
+                }
+            }
+        }
+        HeadlessRunner runner = new HeadlessRunner(GridFiles.load(Paths.get(args[0])), algorithm, format);
+        runner.warmUp(warmup);
+        if (port == -1) {
+            runner.serve(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII)), Channels.newChannel(new FileOutputStream(FileDescriptor.out)));
+            return;
+        }
+        // the grid is shared by all queries, so clients are served one at a time
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            while (true) {
+                try (SocketChannel client = server.accept()) {
+                    runner.serve(new BufferedReader(Channels.newReader(client, StandardCharsets.US_ASCII)), client);
+                }
+                catch (IOException e) {
+                    System.err.println("client failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+}
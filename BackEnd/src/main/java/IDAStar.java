@@ -0,0 +1,234 @@
+import java.util.Arrays;
+
+/**
+ * A memory-bounded implementation of the 'IDA*' (iterative deepening A*) pathfinding algorithm <br>
+ * instead of open / closed sets over the whole grid, it runs depth-first searches with a growing f bound,
+ * pruning with a fixed-size transposition table of the best g seen for each tile <br>
+ * the table never grows past the given memory limit, a smaller table only costs more re-expansions <br>
+ * a snapshot of the grid would not fit in that limit, so the search reads the grid itself and is repeated
+ * if a wall was added or removed while it ran, so its result always matches a single version of the grid <br>
+ * if the layout keeps changing for MAX_RETRIES searches, a last search runs on a snapshot instead
+ * (the only case where memory outside the limit is used) <br>
+ * unreachable destinations are only detected up front if the grid's connected components fit in the limit too
+ */
+public class IDAStar {
+
+    // the default memory limit of the transposition table, in bytes
+    public static final long DEFAULT_MEMORY_LIMIT = 8L << 20;
+
+    // the size of a single table entry in bytes (key, g and iteration, as ints)
+    public static final int ENTRY_BYTES = 12;
+
+    // the memory the connected components take per tile in bytes (a label, and a tile of the snapshot they are labeled from)
+    public static final int COMPONENT_BYTES = 8;
+
+    // the search directions, in the order the other algorithms expand them (UP, DOWN, LEFT, RIGHT)
+    private static final int[] DX = {0, 0, -1, 1};
+    private static final int[] DY = {1, -1, 0, 0};
+
+    // the number of searches of the grid itself before falling back to a snapshot
+    private static final int MAX_RETRIES = 3;
+
+    /**
+     * A implementation of the 'IDA*' pathfinding algorithm, using the default memory limit
+     * @param grid - the grid to work on
+     * @return the path found, null otherwise (marks path on grid if found)
+     */
+    public static PathResult solve(Grid grid) {
+        return solve(grid, DEFAULT_MEMORY_LIMIT);
+    }
+
+    /**
+     * A implementation of the 'IDA*' pathfinding algorithm
+     * @param grid - the grid to work on
+     * @param memoryLimit - the maximal size of the transposition table (and of the connected components, if they fit), in bytes
+     * @return the path found, null otherwise (marks path on grid if found)
+     * @throws IllegalArgumentException - if the limit can't hold a single table entry
+     */
+    public static PathResult solve(Grid grid, long memoryLimit) throws IllegalArgumentException {
+        if (memoryLimit < ENTRY_BYTES)
+            throw new IllegalArgumentException("Memory limit must hold at least one " + ENTRY_BYTES + " byte entry!");
+        grid.clearVisitorLog();
+        // get the source and destination
+        int[] source = grid.getSource();
+        int[] destination = grid.getDestination();
+        // check source and destination are defined
+        if (source == null || destination == null)
+            return null;
+        // no need to search if the destination can't be reached, only checked if the connected components fit in the limit
+        // next to a table entry (their memory is taken from the table's share)
+        long componentBytes = (long) COMPONENT_BYTES * grid.getWidth() * grid.getHeight();
+        if (memoryLimit - componentBytes >= ENTRY_BYTES) {
+            if (grid.getConnectedComponents().isDisconnected(grid.getVersion(), source, destination))
+                return null;
+            memoryLimit -= componentBytes;
+        }
+        TranspositionTable table = new TranspositionTable(memoryLimit / ENTRY_BYTES);
+        for (int attempt = 0; attempt < MAX_RETRIES; attempt++) {
+            long version = grid.getVersion();
+            int[] path = search(grid, null, grid.getIndex(source[0], source[1]), grid.getIndex(destination[0], destination[1]), table);
+            // only trust the result if the layout didn't change during the search
+            if (grid.getVersion() == version)
+                return path == null ? null : tracePath(grid, path);
+            table.clear();
+        }
+        // the grid keeps changing, search a single version of it
+        GridSnapshot snapshot = grid.snapshot();
+        source = snapshot.getSource();
+        destination = snapshot.getDestination();
+        if (source == null || destination == null)
+            return null;
+        int[] path = search(grid, snapshot, grid.getIndex(source[0], source[1]), grid.getIndex(destination[0], destination[1]), table);
+        return path == null ? null : tracePath(grid, path);
+    }
+
+    // A method to get the manhattan distance between 2 tiles, a lower bound on their hop distance
+    private static int heuristic(Grid grid, int tile1, int tile2) {
+        return Math.abs(grid.getX(tile1) - grid.getX(tile2)) + Math.abs(grid.getY(tile1) - grid.getY(tile2));
+    }
+
+    // the search code, reading the tiles from a snapshot (from the grid itself if null), returns the tiles along the path found, null otherwise
+    private static int[] search(Grid grid, GridSnapshot snapshot, int source, int destination, TranspositionTable table) {
+        int bound = heuristic(grid, source, destination);
+        // the current path, and the next direction to try from every tile on it
+        int[] path = new int[16];
+        byte[] nextDirections = new byte[16];
+        for (int iteration = 1; ; iteration++) {
+            // the smallest f that exceeded the bound, the bound of the next iteration
+            int nextBound = Integer.MAX_VALUE;
+            int depth = 0;
+            path[0] = source;
+            nextDirections[0] = 0;
+            table.visit(source, 0, iteration);
+            while (depth >= 0) {
+                int current = path[depth];
+                // check if destination is reached
+                if (current == destination)
+                    return Arrays.copyOf(path, depth + 1);
+                // go back once every direction was tried
+                if (nextDirections[depth] == DX.length) {
+                    depth--;
+                    continue;
+                }
+                int direction = nextDirections[depth]++;
+                int x = grid.getX(current);
+                int y = grid.getY(current);
+                // mark as visited if empty
+                if (direction == 0)
+                    grid.replaceTileType(x, y, GridConstants.TILE_TYPES.EMPTY, GridConstants.TILE_TYPES.VISITED);
+                // check neighbor is valid and not the tile we came from
+                int nx = x + DX[direction];
+                int ny = y + DY[direction];
+                if (!grid.isInGrid(nx, ny) || (snapshot == null ? grid.getTileType(nx, ny) : snapshot.getTileType(nx, ny)) == GridConstants.TILE_TYPES.WALL)
+                    continue;
+                int neighbor = grid.getIndex(nx, ny);
+                if (depth > 0 && neighbor == path[depth - 1])
+                    continue;
+                // cut off paths that exceed the bound
+                int g = depth + 1;
+                int f = g + heuristic(grid, neighbor, destination);
+                if (f > bound) {
+                    nextBound = Math.min(nextBound, f);
+                    continue;
+                }
+                // skip the neighbor if it was already reached as cheaply
+                if (!table.visit(neighbor, g, iteration))
+                    continue;
+                depth++;
+                if (depth == path.length) {
+                    path = Arrays.copyOf(path, depth * 2);
+                    nextDirections = Arrays.copyOf(nextDirections, depth * 2);
+                }
+                path[depth] = neighbor;
+                nextDirections[depth] = 0;
+            }
+            // if destination not reached
+            if (nextBound == Integer.MAX_VALUE)
+                return null;
+            bound = nextBound;
+        }
+    }
+
+    // A method to mark the path on the grid
+    private static PathResult tracePath(Grid grid, int[] path) {
+        for (int i = 1; i < path.length - 1; i++)
+            grid.replaceTileType(grid.getX(path[i]), grid.getY(path[i]), GridConstants.TILE_TYPES.VISITED, GridConstants.TILE_TYPES.PATH);
+        return new PathResult(path, path.length - 1, grid.getWidth());
+    }
+
+    /**
+     * A fixed-size hash table of the smallest g each tile was reached with, and the iteration it was reached in <br>
+     * colliding entries overwrite the one from the oldest iteration, losing an entry only loses pruning
+     */
+    private static class TranspositionTable {
+
+        // the number of slots checked for every tile
+        private static final int PROBES = 4;
+
+        // The entries, as parallel arrays (a key of 0 marks an empty slot, keys are tile + 1)
+        private final int[] keys;
+        private final int[] gValues;
+        private final int[] iterations;
+
+        // The mask used to wrap probes around the table, and the shift mapping hashes to slots (32 - log2 of the capacity)
+        private final int mask;
+        private final int shift;
+
+        /**
+         * A constructor to create a new table
+         * @param maxEntries - the maximal number of entries (rounded down to a power of 2)
+         */
+        public TranspositionTable(long maxEntries) {
+            int capacity = Integer.highestOneBit((int) Math.min(maxEntries, 1 << 30));
+            this.keys = new int[capacity];
+            this.gValues = new int[capacity];
+            this.iterations = new int[capacity];
+            this.mask = capacity - 1;
+            this.shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        }
+
+        /**
+         * A method to remove all entries
+         */
+        public void clear() {
+            Arrays.fill(this.keys, 0);
+        }
+
+        /**
+         * A method to record that a tile was reached, unless it was already reached as cheaply
+         * @param tile - the tile reached
+         * @param g - the cost of the path it was reached by
+         * @param iteration - the current iteration
+         * @return true if the tile should be expanded, false if it can be pruned
+         */
+        public boolean visit(int tile, int g, int iteration) {
+            // fibonacci hashing, the top bits of the product are the best mixed (masked as a shift by 32 does nothing)
+            int slot = (tile * 0x9E3779B9) >>> this.shift & this.mask;
+            int victim = slot;
+            for (int i = 0; i < PROBES; i++) {
+                int probe = (slot + i) & this.mask;
+                if (this.keys[probe] == tile + 1) {
+                    // prune if reached as cheaply in this iteration, or more cheaply in an earlier one
+                    int stored = this.gValues[probe];
+                    if (this.iterations[probe] == iteration ? g >= stored : g > stored)
+                        return false;
+                    this.gValues[probe] = g;
+                    this.iterations[probe] = iteration;
+                    return true;
+                }
+                if (this.keys[probe] == 0) {
+                    victim = probe;
+                    break;
+                }
+                if (this.iterations[probe] < this.iterations[victim])
+                    victim = probe;
+            }
+            this.keys[victim] = tile + 1;
+            this.gValues[victim] = g;
+            this.iterations[victim] = iteration;
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,529 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.PriorityQueue;
+
+/**
+ * A compact graph of the grid's junctions, used to search mazes without walking their corridors tile by tile <br>
+ * every traversable tile that doesn't have exactly 2 traversable neighbours is a junction (node), the chains of
+ * tiles between junctions are collapsed into weighted edges stored in a CSR (compressed sparse row) layout <br>
+ * edits only re-trace the corridors around the edited tiles <br>
+ * the graph is traced from its own copy of the walls, taken from a snapshot and kept up to date by the grid's
+ * notifications, so the tiles it traces never change under it
+ */
+public class JunctionGraph implements GridListener {
+
+    // the neighbour offsets
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1};
+
+    // The grid the graph is built from
+    private final Grid grid;
+
+    // Whether every tile is a wall, as of the last change the graph followed, and the layout version of that change
+    private boolean[] walls;
+    private long builtVersion;
+
+    // The node of every tile (-1 for tiles that aren't junctions)
+    private int[] nodeOf;
+
+    // The tile of every node (-1 for removed nodes)
+    private ArrayList<Integer> nodeTiles;
+
+    // The corridors connected to every node
+    private ArrayList<ArrayList<Integer>> incidentCorridors;
+
+    // The corridor every corridor tile belongs to (-1 for other tiles), and the tile's position in it
+    private int[] corridorOf;
+    private int[] positionOf;
+
+    // The tiles inside every corridor, ordered from its first end to its second (null for removed corridors)
+    private ArrayList<int[]> corridorTiles;
+
+    // The nodes at the ends of every corridor
+    private ArrayList<int[]> corridorEnds;
+
+    // The adjacency of every node in CSR layout: the edges of node i are offsets[i] to offsets[i + 1]
+    private int[] offsets;
+    private int[] targets;
+    private int[] weights;
+    private int[] edgeCorridors;
+    private boolean adjacencyOutdated;
+
+    // Tiles that were edited since the graph was last updated
+    private final LinkedList<Integer> pendingEdits;
+
+    // Whether the graph has to be built from scratch
+    private boolean needsRebuild;
+
+    /**
+     * A constructor to create a new junction graph that follows the changes of a grid
+     * @param grid - the grid to build the graph from
+     */
+    public JunctionGraph(Grid grid) {
+        this.grid = grid;
+        this.pendingEdits = new LinkedList<>();
+        this.needsRebuild = true;
+        this.builtVersion = -1;
+        grid.addListener(this);
+    }
+
+    // A method to check if a tile can be traversed, as of the last change the graph followed
+    private boolean isTraversable(int x, int y) {
+        return this.grid.isInGrid(x, y) && !this.walls[this.grid.getIndex(x, y)];
+    }
+
+    // A method to count the traversable neighbours of a tile
+    private int getDegree(int tile) {
+        int x = this.grid.getX(tile);
+        int y = this.grid.getY(tile);
+        int degree = 0;
+        for (int direction = 0; direction < DX.length; direction++)
+            if (this.isTraversable(x + DX[direction], y + DY[direction]))
+                degree++;
+        return degree;
+    }
+
+    // A method to check if a traversable tile should be a junction
+    private boolean isJunction(int tile) {
+        return this.isTraversable(this.grid.getX(tile), this.grid.getY(tile)) && this.getDegree(tile) != 2;
+    }
+
+    // A method to turn a tile into a node
+    private void addNode(int tile) {
+        this.nodeOf[tile] = this.nodeTiles.size();
+        this.nodeTiles.add(tile);
+        this.incidentCorridors.add(new ArrayList<>());
+        this.adjacencyOutdated = true;
+    }
+
+    // A method to stop a tile from being a node (its corridors must have been removed)
+    private void removeNode(int tile) {
+        this.nodeTiles.set(this.nodeOf[tile], -1);
+        this.nodeOf[tile] = -1;
+    }
+
+    // A method to add a corridor between 2 nodes
+    private void addCorridor(int first, int[] tiles, int second) {
+        int corridor = this.corridorTiles.size();
+        this.corridorTiles.add(tiles);
+        this.corridorEnds.add(new int[] {first, second});
+        for (int i = 0; i < tiles.length; i++) {
+            this.corridorOf[tiles[i]] = corridor;
+            this.positionOf[tiles[i]] = i;
+        }
+        this.incidentCorridors.get(first).add(corridor);
+        if (second != first)
+            this.incidentCorridors.get(second).add(corridor);
+        this.adjacencyOutdated = true;
+    }
+
+    // A method to remove a corridor, returns the tiles that were in it
+    private int[] removeCorridor(int corridor) {
+        int[] tiles = this.corridorTiles.get(corridor);
+        for (int tile : tiles)
+            this.corridorOf[tile] = -1;
+        for (int end : this.corridorEnds.get(corridor))
+            this.incidentCorridors.get(end).remove(Integer.valueOf(corridor));
+        this.corridorTiles.set(corridor, null);
+        this.adjacencyOutdated = true;
+        return tiles;
+    }
+
+    // A method to follow a corridor from a node through one of its neighbours, and add it if it isn't in the graph yet
+    // (a corridor that doesn't reach a junction within the number of tiles means the graph is broken, it is built again)
+    private void trace(int node, int first) {
+        // 2 neighbouring junctions are connected by an empty corridor
+        if (this.nodeOf[first] != -1) {
+            int other = this.nodeOf[first];
+            for (int corridor : this.incidentCorridors.get(node))
+                if (this.corridorTiles.get(corridor).length == 0 && (this.corridorEnds.get(corridor)[0] == other || this.corridorEnds.get(corridor)[1] == other))
+                    return;
+            this.addCorridor(node, new int[0], other);
+            return;
+        }
+        // skip corridors that were already traced from their other end
+        if (this.corridorOf[first] != -1)
+            return;
+        // walk along the corridor until reaching a junction
+        int[] tiles = new int[16];
+        int length = 0;
+        int previous = this.nodeTiles.get(node);
+        int current = first;
+        while (this.nodeOf[current] == -1) {
+            if (length == this.walls.length) {
+                this.needsRebuild = true;
+                return;
+            }
+            if (length == tiles.length)
+                tiles = Arrays.copyOf(tiles, length * 2);
+            tiles[length++] = current;
+            int x = this.grid.getX(current);
+            int y = this.grid.getY(current);
+            for (int direction = 0; direction < DX.length; direction++) {
+                int nx = x + DX[direction];
+                int ny = y + DY[direction];
+                if (this.isTraversable(nx, ny) && this.grid.getIndex(nx, ny) != previous) {
+                    previous = current;
+                    current = this.grid.getIndex(nx, ny);
+                    break;
+                }
+            }
+        }
+        this.addCorridor(node, Arrays.copyOf(tiles, length), this.nodeOf[current]);
+    }
+
+    // A method to trace every corridor leaving a node
+    private void traceAll(int node) {
+        int tile = this.nodeTiles.get(node);
+        int x = this.grid.getX(tile);
+        int y = this.grid.getY(tile);
+        for (int direction = 0; direction < DX.length; direction++)
+            if (this.isTraversable(x + DX[direction], y + DY[direction]))
+                this.trace(node, this.grid.getIndex(x + DX[direction], y + DY[direction]));
+    }
+
+    // A method to cover a tile that ended up in a loop with no junctions, by making it a junction
+    private void coverLoop(int tile) {
+        if (this.isTraversable(this.grid.getX(tile), this.grid.getY(tile)) && this.nodeOf[tile] == -1 && this.corridorOf[tile] == -1) {
+            this.addNode(tile);
+            this.traceAll(this.nodeOf[tile]);
+        }
+    }
+
+    // A method to build the graph from scratch, from a snapshot of the grid
+    private void rebuild() {
+        GridSnapshot snapshot = this.grid.snapshot();
+        int tiles = this.grid.getWidth() * this.grid.getHeight();
+        this.walls = new boolean[tiles];
+        for (int tile = 0; tile < tiles; tile++)
+            this.walls[tile] = snapshot.getTileType(this.grid.getX(tile), this.grid.getY(tile)) == GridConstants.TILE_TYPES.WALL;
+        this.builtVersion = snapshot.getVersion();
+        this.needsRebuild = false;
+        this.nodeOf = new int[tiles];
+        this.corridorOf = new int[tiles];
+        this.positionOf = new int[tiles];
+        Arrays.fill(this.nodeOf, -1);
+        Arrays.fill(this.corridorOf, -1);
+        this.nodeTiles = new ArrayList<>();
+        this.incidentCorridors = new ArrayList<>();
+        this.corridorTiles = new ArrayList<>();
+        this.corridorEnds = new ArrayList<>();
+        for (int tile = 0; tile < tiles; tile++)
+            if (this.isJunction(tile))
+                this.addNode(tile);
+        for (int node = 0; node < this.nodeTiles.size(); node++)
+            this.traceAll(node);
+        for (int tile = 0; tile < tiles; tile++)
+            this.coverLoop(tile);
+        this.pendingEdits.clear();
+        this.adjacencyOutdated = true;
+        // the walls don't change while building, so every corridor must reach a junction
+        if (this.needsRebuild)
+            throw new IllegalStateException("A corridor didn't reach a junction!");
+    }
+
+    // A method to re-trace only the corridors around the edited tiles
+    private void applyEdits() {
+        // the degree of an edited tile's neighbours may have changed too
+        HashSet<Integer> affected = new HashSet<>();
+        for (int tile : this.pendingEdits) {
+            affected.add(tile);
+            int x = this.grid.getX(tile);
+            int y = this.grid.getY(tile);
+            for (int direction = 0; direction < DX.length; direction++)
+                if (this.grid.isInGrid(x + DX[direction], y + DY[direction]))
+                    affected.add(this.grid.getIndex(x + DX[direction], y + DY[direction]));
+        }
+        this.pendingEdits.clear();
+        // remove every corridor that passes through or ends at an affected tile
+        HashSet<Integer> removed = new HashSet<>();
+        for (int tile : affected) {
+            if (this.corridorOf[tile] != -1)
+                removed.add(this.corridorOf[tile]);
+            if (this.nodeOf[tile] != -1)
+                removed.addAll(this.incidentCorridors.get(this.nodeOf[tile]));
+        }
+        HashSet<Integer> ends = new HashSet<>();
+        LinkedList<Integer> uncovered = new LinkedList<>(affected);
+        for (int corridor : removed) {
+            for (int end : this.corridorEnds.get(corridor))
+                ends.add(end);
+            for (int tile : this.removeCorridor(corridor))
+                uncovered.add(tile);
+        }
+        // update which affected tiles are junctions
+        for (int tile : affected) {
+            boolean junction = this.isJunction(tile);
+            if (this.nodeOf[tile] != -1 && !junction)
+                this.removeNode(tile);
+            else if (this.nodeOf[tile] == -1 && junction)
+                this.addNode(tile);
+            if (this.nodeOf[tile] != -1)
+                ends.add(this.nodeOf[tile]);
+        }
+        // trace the corridors again from every node that lost one
+        for (int node : ends)
+            if (this.nodeTiles.get(node) != -1)
+                this.traceAll(node);
+        for (int tile : uncovered)
+            this.coverLoop(tile);
+    }
+
+    // A method to bring the graph up to date before answering a query
+    private void update() {
+        int tiles = this.grid.getWidth() * this.grid.getHeight();
+        if (this.needsRebuild || this.pendingEdits.size() > tiles / 64)
+            this.rebuild();
+        else if (!this.pendingEdits.isEmpty()) {
+            this.applyEdits();
+            if (this.needsRebuild)
+                this.rebuild();
+        }
+        if (this.adjacencyOutdated)
+            this.buildAdjacency();
+    }
+
+    // A method to pack the corridors into the CSR adjacency arrays
+    private void buildAdjacency() {
+        int nodes = this.nodeTiles.size();
+        this.offsets = new int[nodes + 1];
+        for (int corridor = 0; corridor < this.corridorTiles.size(); corridor++) {
+            int[] ends = this.corridorEnds.get(corridor);
+            if (this.corridorTiles.get(corridor) != null && ends[0] != ends[1]) {
+                this.offsets[ends[0] + 1]++;
+                this.offsets[ends[1] + 1]++;
+            }
+        }
+        for (int node = 0; node < nodes; node++)
+            this.offsets[node + 1] += this.offsets[node];
+        this.targets = new int[this.offsets[nodes]];
+        this.weights = new int[this.offsets[nodes]];
+        this.edgeCorridors = new int[this.offsets[nodes]];
+        int[] fill = Arrays.copyOf(this.offsets, nodes);
+        for (int corridor = 0; corridor < this.corridorTiles.size(); corridor++) {
+            int[] ends = this.corridorEnds.get(corridor);
+            if (this.corridorTiles.get(corridor) == null || ends[0] == ends[1])
+                continue;
+            int weight = this.corridorTiles.get(corridor).length + 1;
+            for (int side = 0; side < 2; side++) {
+                int edge = fill[ends[side]]++;
+                this.targets[edge] = ends[1 - side];
+                this.weights[edge] = weight;
+                this.edgeCorridors[edge] = corridor;
+            }
+        }
+        this.adjacencyOutdated = false;
+    }
+
+    // A method to check if the change being delivered is newer than the graph, moving the graph to its version if so
+    // (changes older than a rebuild are already part of the snapshot it was built from)
+    private boolean isNewChange() {
+        long version = this.grid.getDeliveredVersion();
+        if (this.needsRebuild || version <= this.builtVersion)
+            return false;
+        this.builtVersion = version;
+        return true;
+    }
+
+    // A method to follow a tile that turned into / stopped being a wall
+    private void applyChange(int x, int y, GridConstants.TILE_TYPES current) {
+        int tile = this.grid.getIndex(x, y);
+        this.walls[tile] = current == GridConstants.TILE_TYPES.WALL;
+        this.pendingEdits.add(tile);
+    }
+
+    @Override
+    public synchronized void tileChanged(int x, int y, GridConstants.TILE_TYPES previous, GridConstants.TILE_TYPES current) {
+        if ((previous == GridConstants.TILE_TYPES.WALL) != (current == GridConstants.TILE_TYPES.WALL) && this.isNewChange())
+            this.applyChange(x, y, current);
+    }
+
+    @Override
+    public synchronized void tilesChanged(GridChangeSet changes) {
+        // ignore edits that don't affect traversal, and build from scratch instead of following large ones
+        if (!changes.isLayoutChanged() || !this.isNewChange())
+            return;
+        if (changes.size() > this.grid.getWidth() * this.grid.getHeight() / 64) {
+            this.needsRebuild = true;
+            return;
+        }
+        for (int i = 0; i < changes.size(); i++)
+            if ((changes.getPreviousType(i) == GridConstants.TILE_TYPES.WALL) != (changes.getType(i) == GridConstants.TILE_TYPES.WALL))
+                this.applyChange(changes.getX(i), changes.getY(i), changes.getType(i));
+    }
+
+    @Override
+    public synchronized void gridReset() {
+        this.needsRebuild = true;
+    }
+
+    // A method to get the nodes a tile can leave / enter the graph through, mapped to the cost of getting there
+    private HashMap<Integer, Integer> getAttachments(int tile) {
+        HashMap<Integer, Integer> output = new HashMap<>();
+        if (this.nodeOf[tile] != -1) {
+            output.put(this.nodeOf[tile], 0);
+            return output;
+        }
+        int[] ends = this.corridorEnds.get(this.corridorOf[tile]);
+        int position = this.positionOf[tile];
+        int length = this.corridorTiles.get(this.corridorOf[tile]).length;
+        output.put(ends[0], position + 1);
+        output.merge(ends[1], length - position, Math::min);
+        return output;
+    }
+
+    // A method to add the part of a corridor between a corridor tile and one of the corridor's ends (both excluded)
+    private void addCorridorPart(LinkedList<Integer> path, int tile, int node, boolean towardsNode) {
+        int corridor = this.corridorOf[tile];
+        int[] tiles = this.corridorTiles.get(corridor);
+        int[] ends = this.corridorEnds.get(corridor);
+        int position = this.positionOf[tile];
+        // go to the first end if it is the node, and the cheaper way in case both ends are the node
+        boolean firstEnd = ends[0] == node && (ends[1] != node || position + 1 <= tiles.length - position);
+        if (towardsNode) {
+            if (firstEnd)
+                for (int i = position - 1; i >= 0; i--)
+                    path.add(tiles[i]);
+            else
+                for (int i = position + 1; i < tiles.length; i++)
+                    path.add(tiles[i]);
+        }
+        else {
+            if (firstEnd)
+                for (int i = 0; i < position; i++)
+                    path.add(tiles[i]);
+            else
+                for (int i = tiles.length - 1; i > position; i--)
+                    path.add(tiles[i]);
+        }
+    }
+
+    /**
+     * A method to find a shortest path between 2 tiles by searching the junction graph
+     * @param from - the first tile
+     * @param to - the second tile
+     * @return the path (starting at from, ending at to), null if there is no path
+     * @throws IndexOutOfBoundsException - if one of the tiles is not in the grid
+     */
+    public synchronized PathResult findPath(int[] from, int[] to) throws IndexOutOfBoundsException {
+        if (!this.grid.isInGrid(from[0], from[1]) || !this.grid.isInGrid(to[0], to[1]))
+            throw new IndexOutOfBoundsException("Query tiles are not in the grid!");
+        this.update();
+        if (!this.isTraversable(from[0], from[1]) || !this.isTraversable(to[0], to[1]))
+            return null;
+        int source = this.grid.getIndex(from[0], from[1]);
+        int destination = this.grid.getIndex(to[0], to[1]);
+        if (source == destination)
+            return new PathResult(new int[] {source}, 0, this.grid.getWidth());
+        HashMap<Integer, Integer> destinationAttachments = this.getAttachments(destination);
+        // tiles in the same corridor can also be connected directly
+        int best = Integer.MAX_VALUE, bestNode = -1;
+        if (this.corridorOf[source] != -1 && this.corridorOf[source] == this.corridorOf[destination])
+            best = Math.abs(this.positionOf[source] - this.positionOf[destination]);
+        // run dijkstra over the nodes, starting from the ends of the source's corridor
+        int nodes = this.nodeTiles.size();
+        int[] distances = new int[nodes];
+        int[] previousNodes = new int[nodes];
+        int[] previousCorridors = new int[nodes];
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        PriorityQueue<Long> queue = new PriorityQueue<>();
+        for (HashMap.Entry<Integer, Integer> attachment : this.getAttachments(source).entrySet()) {
+            distances[attachment.getKey()] = attachment.getValue();
+            previousNodes[attachment.getKey()] = -1;
+            queue.add((long) attachment.getValue() << 32 | attachment.getKey());
+        }
+        while (!queue.isEmpty()) {
+            long entry = queue.poll();
+            int distance = (int) (entry >>> 32);
+            int node = (int) entry;
+            if (distance > distances[node])
+                continue;
+            if (distance >= best)
+                break;
+            // check if the destination can be reached from this node
+            Integer extra = destinationAttachments.get(node);
+            if (extra != null && distance + extra < best) {
+                best = distance + extra;
+                bestNode = node;
+            }
+            for (int edge = this.offsets[node]; edge < this.offsets[node + 1]; edge++) {
+                int alt = distance + this.weights[edge];
+                int neighbor = this.targets[edge];
+                if (alt < distances[neighbor]) {
+                    distances[neighbor] = alt;
+                    previousNodes[neighbor] = node;
+                    previousCorridors[neighbor] = this.edgeCorridors[edge];
+                    queue.add((long) alt << 32 | neighbor);
+                }
+            }
+        }
+        if (best == Integer.MAX_VALUE)
+            return null;
+        LinkedList<Integer> path = new LinkedList<>();
+        path.add(source);
+        if (bestNode == -1) {
+            // walk directly along the shared corridor
+            int[] tiles = this.corridorTiles.get(this.corridorOf[source]);
+            int step = this.positionOf[destination] > this.positionOf[source] ? 1 : -1;
+            for (int i = this.positionOf[source] + step; i != this.positionOf[destination]; i += step)
+                path.add(tiles[i]);
+        }
+        else {
+            // collect the nodes along the way
+            LinkedList<Integer> route = new LinkedList<>();
+            for (int node = bestNode; node != -1; node = previousNodes[node])
+                route.addFirst(node);
+            // leave the source's corridor
+            if (this.nodeOf[source] == -1) {
+                this.addCorridorPart(path, source, route.getFirst(), true);
+                path.add(this.nodeTiles.get(route.getFirst()));
+            }
+            // expand every corridor on the way back into tiles
+            int previous = route.getFirst();
+            for (int node : route.subList(1, route.size())) {
+                int corridor = previousCorridors[node];
+                int[] tiles = this.corridorTiles.get(corridor);
+                if (this.corridorEnds.get(corridor)[0] == previous)
+                    for (int tile : tiles)
+                        path.add(tile);
+                else
+                    for (int i = tiles.length - 1; i >= 0; i--)
+                        path.add(tiles[i]);
+                path.add(this.nodeTiles.get(node));
+                previous = node;
+            }
+            // enter the destination's corridor
+            if (this.nodeOf[destination] == -1)
+                this.addCorridorPart(path, destination, bestNode, false);
+        }
+        if (path.getLast() != destination)
+            path.add(destination);
+        return new PathResult(path, this.grid.getWidth());
+    }
+
+    /**
+     * A method to get the number of junctions in the graph
+     * @return the number of nodes
+     */
+    public synchronized int getNodeCount() {
+        this.update();
+        int count = 0;
+        for (int tile : this.nodeTiles)
+            if (tile != -1)
+                count++;
+        return count;
+    }
+
+    /**
+     * A method to get the number of corridors in the graph
+     * @return the number of edges
+     */
+    public synchronized int getEdgeCount() {
+        this.update();
+        return this.targets.length / 2;
+    }
+
+}
@@ -0,0 +1,160 @@
+import java.util.Arrays;
+
+/**
+ * A class to hold the preprocessed landmark distances used by the ALT heuristic for A* <br>
+ * for every landmark L the triangle inequality gives |d(L, a) - d(L, b)| <= d(a, b),
+ * a lower bound that follows the walls of the grid instead of ignoring them <br>
+ * the memory cost is one int per tile per landmark
+ */
+public class Landmarks {
+
+    // the neighbour offsets
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1};
+
+    // The grid the landmarks were picked on
+    private final Grid grid;
+
+    // The number of landmarks to pick
+    private final int count;
+
+    // The landmark tiles (packed indexes)
+    private int[] landmarks;
+
+    // The hop distance from each landmark to every tile (-1 if unreachable)
+    private int[][] distances;
+
+    // The grid version the landmarks were computed for
+    private long version;
+
+    /**
+     * A constructor to pick landmarks on a grid and compute their distances
+     * @param grid - the grid to preprocess
+     * @param count - the number of landmarks to pick
+     * @throws IllegalArgumentException - if count is not positive
+     */
+    public Landmarks(Grid grid, int count) throws IllegalArgumentException {
+        if (count <= 0)
+            throw new IllegalArgumentException("Landmark count must be positive!");
+        this.grid = grid;
+        this.count = count;
+        this.update();
+    }
+
+    /**
+     * A method to check if the landmarks can be used for a search on a given grid
+     * @param grid - the grid to search
+     * @return true if the landmarks were computed on this grid's current layout, false otherwise
+     */
+    public boolean isValidFor(Grid grid) {
+        return this.grid == grid && this.version == grid.getVersion();
+    }
+
+    /**
+     * A method to pick the landmarks again if the grid's layout changed since they were computed <br>
+     * landmarks are picked by farthest-point selection, each new landmark is the tile farthest from all previous ones
+     */
+    public void update() {
+        if (this.distances != null && this.version == this.grid.getVersion())
+            return;
+        // work on a snapshot so the landmarks match a single version of the grid
+        GridSnapshot snapshot = this.grid.snapshot();
+        this.version = snapshot.getVersion();
+        int tiles = this.grid.getWidth() * this.grid.getHeight();
+        // the distance from every tile to its closest landmark
+        int[] closest = new int[tiles];
+        Arrays.fill(closest, Integer.MAX_VALUE);
+        int[] picked = new int[this.count];
+        int[][] pickedDistances = new int[this.count][];
+        int pickedCount = 0;
+        // start from the source if there is one, the first landmark will be the tile farthest from it
+        int start = snapshot.getSource() != null ? this.grid.getIndex(snapshot.getSource()[0], snapshot.getSource()[1]) : -1;
+        int[] startDistances = start == -1 ? null : this.distancesFrom(snapshot, start);
+        while (pickedCount < this.count) {
+            // pick the traversable tile farthest from all picked landmarks (tiles unreachable from all of them come first)
+            int next = -1;
+            long best = -1;
+            for (int i = 0; i < tiles; i++) {
+                if (closest[i] == 0 || snapshot.getTileType(this.grid.getX(i), this.grid.getY(i)) == GridConstants.TILE_TYPES.WALL)
+                    continue;
+                long score = pickedCount == 0 && startDistances != null ? startDistances[i] : closest[i];
+                if (score > best) {
+                    best = score;
+                    next = i;
+                }
+            }
+            // stop if every traversable tile is already a landmark
+            if (next == -1)
+                break;
+            int[] nextDistances = this.distancesFrom(snapshot, next);
+            for (int i = 0; i < tiles; i++)
+                if (nextDistances[i] != -1)
+                    closest[i] = Math.min(closest[i], nextDistances[i]);
+            picked[pickedCount] = next;
+            pickedDistances[pickedCount++] = nextDistances;
+        }
+        this.landmarks = Arrays.copyOf(picked, pickedCount);
+        this.distances = Arrays.copyOf(pickedDistances, pickedCount);
+    }
+
+    // A method to compute the hop distance from a tile to every other tile using BFS
+    private int[] distancesFrom(GridSnapshot snapshot, int start) {
+        int[] output = new int[this.grid.getWidth() * this.grid.getHeight()];
+        Arrays.fill(output, -1);
+        int[] queue = new int[output.length];
+        int head = 0, tail = 0;
+        output[start] = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            int current = queue[head++];
+            int x = this.grid.getX(current);
+            int y = this.grid.getY(current);
+            for (int direction = 0; direction < DX.length; direction++) {
+                int nx = x + DX[direction];
+                int ny = y + DY[direction];
+                if (!snapshot.isInGrid(nx, ny) || snapshot.getTileType(nx, ny) == GridConstants.TILE_TYPES.WALL)
+                    continue;
+                int neighbor = this.grid.getIndex(nx, ny);
+                if (output[neighbor] != -1)
+                    continue;
+                output[neighbor] = output[current] + 1;
+                queue[tail++] = neighbor;
+            }
+        }
+        return output;
+    }
+
+    /**
+     * A method to get a lower bound on the distance between 2 tiles
+     * @param from - the first tile
+     * @param to - the second tile
+     * @return a lower bound on the hop distance between the tiles (POSITIVE_INFINITY if a landmark proves they are not connected)
+     */
+    public double getLowerBound(int[] from, int[] to) {
+        int fromIndex = this.grid.getIndex(from[0], from[1]);
+        int toIndex = this.grid.getIndex(to[0], to[1]);
+        int bound = 0;
+        for (int[] landmarkDistances : this.distances) {
+            int fromDistance = landmarkDistances[fromIndex];
+            int toDistance = landmarkDistances[toIndex];
+            // a landmark that reaches only one of the tiles proves they are in different regions
+            if ((fromDistance == -1) != (toDistance == -1))
+                return Double.POSITIVE_INFINITY;
+            if (fromDistance != -1)
+                bound = Math.max(bound, Math.abs(fromDistance - toDistance));
+        }
+        return bound;
+    }
+
+    /**
+     * A method to get the landmark tiles
+     * @return the landmarks, each given as {x, y}
+     */
+    public int[][] getLandmarks() {
+        int[][] output = new int[this.landmarks.length][];
+        for (int i = 0; i < this.landmarks.length; i++)
+            output[i] = new int[] {this.grid.getX(this.landmarks[i]), this.grid.getY(this.landmarks[i])};
+        return output;
+    }
+
+}
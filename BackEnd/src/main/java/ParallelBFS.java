@@ -0,0 +1,271 @@
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * A level-synchronous parallel implementation of the 'BFS' pathfinding algorithm <br>
+ * every level of the search is expanded by ForkJoin workers, either top-down (frontier tiles claim their neighbours)
+ * or bottom-up (unvisited tiles look for a neighbour in the frontier), depending on the size of the frontier <br>
+ * each tile gets the parent the sequential BFS would have given it, so the paths found are identical
+ */
+public class ParallelBFS {
+
+    // the search directions, in the order the sequential BFS expands them (UP, DOWN, LEFT, RIGHT)
+    private static final int[] DX = {0, 0, -1, 1};
+    private static final int[] DY = {1, -1, 0, 0};
+
+    // switch to bottom-up once the frontier is larger than the unvisited tiles / ALPHA,
+    // and back to top-down once it is smaller than all tiles / BETA (Beamer's direction-optimizing BFS)
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+
+    // the number of frontier tiles / bitset words handled by a single task
+    private static final int CHUNK = 1024;
+
+    // The grid to search
+    private final Grid grid;
+    private final int tiles;
+
+    // Bitsets of the traversable and visited tiles
+    private final long[] traversable;
+    private final AtomicLongArray visited;
+
+    // A bitset of the current frontier
+    private final long[] frontierBits;
+
+    // The position of each frontier tile in the sequential BFS queue (within its level)
+    private final int[] ranks;
+
+    // The direction each visited tile was reached from
+    private final byte[] parentDirections;
+
+    // A constructor to set up the search state, reading the tiles from a snapshot of the grid
+    private ParallelBFS(Grid grid, GridSnapshot snapshot) {
+        this.grid = grid;
+        this.tiles = grid.getWidth() * grid.getHeight();
+        int words = (this.tiles + 63) >>> 6;
+        this.traversable = new long[words];
+        this.visited = new AtomicLongArray(words);
+        this.frontierBits = new long[words];
+        this.ranks = new int[this.tiles];
+        this.parentDirections = new byte[this.tiles];
+        // tiles are traversable like in the sequential BFS: anything but walls and old visited markings
+        IntStream.range(0, words).parallel().forEach(word -> {
+            long bits = 0;
+            for (int tile = word << 6; tile < Math.min(this.tiles, (word + 1) << 6); tile++) {
+                GridConstants.TILE_TYPES tile_type = snapshot.getTileType(grid.getX(tile), grid.getY(tile));
+                if (tile_type != GridConstants.TILE_TYPES.WALL && tile_type != GridConstants.TILE_TYPES.VISITED)
+                    bits |= 1L << tile;
+            }
+            this.traversable[word] = bits;
+        });
+    }
+
+    /**
+     * A parallel implementation of the 'BFS' pathfinding algorithm, using the common ForkJoin pool
+     * @param grid - the grid to work on
+     * @return the path found, null otherwise (marks path on grid if found)
+     */
+    public static PathResult solve(Grid grid) {
+        grid.clearVisitorLog();
+        // search a snapshot, so the whole search sees a single version of the grid (markings still go to the grid)
+        GridSnapshot snapshot = grid.snapshot();
+        // get the source and destination
+        int[] source = snapshot.getSource();
+        int[] destination = snapshot.getDestination();
+        // check source and destination are defined
+        if (source == null || destination == null)
+            return null;
+        // no need to search if the destination can't be reached
+        if (grid.getConnectedComponents().isDisconnected(snapshot, source, destination))
+            return null;
+        return new ParallelBFS(grid, snapshot).search(grid.getIndex(source[0], source[1]), grid.getIndex(destination[0], destination[1]));
+    }
+
+    // The search code
+    private PathResult search(int source, int destination) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int[] frontier = {source};
+        this.claim(source);
+        long remaining = -1;
+        for (long word : this.traversable)
+            remaining += Long.bitCount(word);
+        boolean bottomUp = false;
+        // the reached tiles in the order the sequential queue would reach them, marked as visited once the search is done
+        int[] reached = new int[16];
+        int reachedCount = 0;
+        while (frontier.length > 0 && !this.isVisited(destination)) {
+            for (int tile : frontier)
+                this.frontierBits[tile >>> 6] |= 1L << tile;
+            // pick the search direction for this level
+            if (!bottomUp && frontier.length > remaining / ALPHA)
+                bottomUp = true;
+            else if (bottomUp && frontier.length < this.tiles / BETA)
+                bottomUp = false;
+            // find the next level
+            int[] current = frontier;
+            int[] children = bottomUp
+                    ? pool.invoke(new ChunkTask(this::bottomUpStep, 0, (this.traversable.length + CHUNK - 1) / CHUNK))
+                    : pool.invoke(new ChunkTask(chunk -> this.topDownStep(current, chunk), 0, (current.length + CHUNK - 1) / CHUNK));
+            // order the next level like the sequential queue would: by the rank of the parent, then by direction
+            long[] keys = new long[children.length];
+            Arrays.parallelSetAll(keys, i -> this.orderKey(children[i]));
+            Arrays.parallelSort(keys);
+            for (int tile : current)
+                this.frontierBits[tile >>> 6] = 0;
+            frontier = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                int tile = (int) keys[i];
+                frontier[i] = tile;
+                this.ranks[tile] = i;
+                this.parentDirections[tile] = (byte) ((keys[i] >>> 32) & 3);
+            }
+            if (reachedCount + frontier.length > reached.length)
+                reached = Arrays.copyOf(reached, Math.max(reached.length * 2, reachedCount + frontier.length));
+            System.arraycopy(frontier, 0, reached, reachedCount, frontier.length);
+            reachedCount += frontier.length;
+            remaining -= children.length;
+        }
+        // mark as visited if empty, as a single bulk edit
+        this.grid.replaceTileTypes(Arrays.copyOf(reached, reachedCount), GridConstants.TILE_TYPES.EMPTY, GridConstants.TILE_TYPES.VISITED);
+        if (!this.isVisited(destination))
+            return null;
+        // trace path to source
+        LinkedList<Integer> path = new LinkedList<>();
+        path.addFirst(destination);
+        int current = destination;
+        // the source has no parent, so it is checked before stepping (the destination may be the source)
+        while (current != source) {
+            int direction = this.parentDirections[current];
+            current = this.grid.getIndex(this.grid.getX(current) - DX[direction], this.grid.getY(current) - DY[direction]);
+            path.addFirst(current);
+            this.grid.replaceTileType(this.grid.getX(current), this.grid.getY(current), GridConstants.TILE_TYPES.VISITED, GridConstants.TILE_TYPES.PATH);
+        }
+        return new PathResult(path, this.grid.getWidth());
+    }
+
+    // A method to check if a tile was visited
+    private boolean isVisited(int tile) {
+        return (this.visited.get(tile >>> 6) & (1L << tile)) != 0;
+    }
+
+    // A method to mark a tile as visited, returns false if another worker got it first
+    private boolean claim(int tile) {
+        int word = tile >>> 6;
+        long bit = 1L << tile;
+        long current;
+        do {
+            current = this.visited.get(word);
+            if ((current & bit) != 0)
+                return false;
+        } while (!this.visited.compareAndSet(word, current, current | bit));
+        return true;
+    }
+
+    // A method to expand a chunk of the frontier, returns the tiles it claimed
+    private int[] topDownStep(int[] frontier, int chunk) {
+        int[] output = new int[16];
+        int count = 0;
+        for (int i = chunk * CHUNK; i < Math.min(frontier.length, (chunk + 1) * CHUNK); i++) {
+            int x = this.grid.getX(frontier[i]);
+            int y = this.grid.getY(frontier[i]);
+            for (int direction = 0; direction < DX.length; direction++) {
+                int nx = x + DX[direction];
+                int ny = y + DY[direction];
+                if (!this.grid.isInGrid(nx, ny))
+                    continue;
+                int neighbor = this.grid.getIndex(nx, ny);
+                if ((this.traversable[neighbor >>> 6] & (1L << neighbor)) == 0 || !this.claim(neighbor))
+                    continue;
+                if (count == output.length)
+                    output = Arrays.copyOf(output, count * 2);
+                output[count++] = neighbor;
+            }
+        }
+        return Arrays.copyOf(output, count);
+    }
+
+    // A method to find the unvisited tiles in a chunk of words that touch the frontier, returns the tiles it found
+    private int[] bottomUpStep(int chunk) {
+        int[] output = new int[16];
+        int count = 0;
+        for (int word = chunk * CHUNK; word < Math.min(this.traversable.length, (chunk + 1) * CHUNK); word++) {
+            long candidates = this.traversable[word] & ~this.visited.get(word);
+            long found = 0;
+            while (candidates != 0) {
+                int tile = (word << 6) + Long.numberOfTrailingZeros(candidates);
+                candidates &= candidates - 1;
+                if (this.orderKey(tile) == Long.MAX_VALUE)
+                    continue;
+                found |= 1L << tile;
+                if (count == output.length)
+                    output = Arrays.copyOf(output, count * 2);
+                output[count++] = tile;
+            }
+            // only this task writes to this word during a bottom-up level
+            if (found != 0)
+                this.visited.getAndAccumulate(word, found, (previous, bits) -> previous | bits);
+        }
+        return Arrays.copyOf(output, count);
+    }
+
+    // A method to find the position of a tile in the sequential queue, as (parent rank, direction, tile) packed in a long
+    private long orderKey(int tile) {
+        int x = this.grid.getX(tile);
+        int y = this.grid.getY(tile);
+        long best = Long.MAX_VALUE;
+        // the parent is the frontier neighbour that comes first in the queue
+        for (int direction = 0; direction < DX.length; direction++) {
+            int px = x - DX[direction];
+            int py = y - DY[direction];
+            if (!this.grid.isInGrid(px, py))
+                continue;
+            int parent = this.grid.getIndex(px, py);
+            if ((this.frontierBits[parent >>> 6] & (1L << parent)) == 0)
+                continue;
+            long key = ((long) this.ranks[parent] * DX.length + direction) << 32 | tile;
+            best = Math.min(best, key);
+        }
+        return best;
+    }
+
+    /**
+     * A task to run a level step over a range of chunks, splitting the range between ForkJoin workers
+     */
+    private static class ChunkTask extends RecursiveTask<int[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final IntFunction<int[]> step;
+        private final int from;
+        private final int to;
+
+        public ChunkTask(IntFunction<int[]> step, int from, int to) {
+            this.step = step;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (this.to - this.from <= 1)
+                return this.from < this.to ? this.step.apply(this.from) : new int[0];
+            // split the range in half, run one half here and the other on another worker
+            int middle = (this.from + this.to) >>> 1;
+            ChunkTask left = new ChunkTask(this.step, this.from, middle);
+            left.fork();
+            int[] right = new ChunkTask(this.step, middle, this.to).compute();
+            int[] output = left.join();
+            int length = output.length;
+            output = Arrays.copyOf(output, length + right.length);
+            System.arraycopy(right, 0, output, length, right.length);
+            return output;
+        }
+
+    }
+
+}
@@ -0,0 +1,253 @@
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * A bounded LRU cache of paths found on a grid <br>
+ * every cached path remembers the versions of the regions its search explored,
+ * so editing one part of the grid only drops the paths that depended on it
+ */
+public class PathCache {
+
+    // The grid the cached paths were found on
+    private final Grid grid;
+
+    // The maximal number of cached paths
+    private final int capacity;
+
+    // The cached paths, ordered from least to most recently used
+    private final LinkedHashMap<Key, CachedPath> entries;
+
+    // Cache statistics
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * A constructor to create a new path cache for a given grid
+     * @param grid - the grid to cache paths for
+     * @param capacity - the maximal number of paths to keep
+     * @throws IllegalArgumentException - if the capacity is not positive
+     */
+    public PathCache(Grid grid, int capacity) throws IllegalArgumentException {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Cache capacity must be positive!");
+        this.grid = grid;
+        this.capacity = capacity;
+        // an access ordered map that drops its least recently used entry when full
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedPath> eldest) {
+                if (this.size() <= PathCache.this.capacity)
+                    return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * A method to find a path between the grid's source and destination, using a cached path if still valid
+     * @param algorithm - the algorithm to use if the path is not cached
+     * @return the path found, null otherwise (marks path on grid if found)
+     */
+    public synchronized PathResult solve(PathfindingAlgorithms.ALGORITHM algorithm) {
+        int[] source = this.grid.getSource();
+        int[] destination = this.grid.getDestination();
+        // check source and destination are defined
+        if (source == null || destination == null)
+            return null;
+        Key key = new Key(source, destination, algorithm);
+        CachedPath entry = this.entries.get(key);
+        if (entry != null) {
+            // use the cached path if none of the regions it explored changed
+            if (entry.isValid(this.grid)) {
+                this.hits++;
+                this.grid.clearVisitorLog();
+                for (int[] tile : entry.painted) {
+                    if (!this.grid.replaceTileType(tile[0], tile[1], GridConstants.TILE_TYPES.VISITED, GridConstants.TILE_TYPES.PATH))
+                        this.grid.replaceTileType(tile[0], tile[1], GridConstants.TILE_TYPES.EMPTY, GridConstants.TILE_TYPES.PATH);
+                }
+                return entry.result;
+            }
+            this.invalidations++;
+            this.entries.remove(key);
+        }
+        // run the algorithm and cache its result
+        this.misses++;
+        long version = this.grid.getVersion();
+        PathResult result = PathfindingAlgorithms.solve(this.grid, algorithm);
+        // any-angle paths depend on line of sight checks that may cross unexplored regions
+        boolean regional = algorithm != PathfindingAlgorithms.ALGORITHM.THETA_STAR && algorithm != PathfindingAlgorithms.ALGORITHM.LAZY_THETA_STAR;
+        CachedPath cached = new CachedPath(this.grid, result, regional, version);
+        // only cache the result if no wall was added or removed since the search started,
+        // otherwise the recorded region versions may already include an edit the search didn't see
+        if (this.grid.getVersion() == version)
+            this.entries.put(key, cached);
+        return result;
+    }
+
+    /**
+     * A method to remove all cached paths
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * A method to get the number of cached paths
+     * @return the number of cached paths
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * A method to get the number of requests answered from the cache
+     * @return the number of cache hits
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * A method to get the number of requests that had to run an algorithm
+     * @return the number of cache misses
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * A method to get the number of paths dropped to make room for newer ones
+     * @return the number of evictions
+     */
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * A method to get the number of paths dropped because the grid changed
+     * @return the number of invalidations
+     */
+    public synchronized long getInvalidations() {
+        return this.invalidations;
+    }
+
+    /**
+     * A method to get the fraction of requests answered from the cache
+     * @return the hit rate, between 0 and 1
+     */
+    public synchronized double getHitRate() {
+        long requests = this.hits + this.misses;
+        return requests == 0 ? 0 : (double) this.hits / requests;
+    }
+
+    /**
+     * A class to identify a cached path by its source, destination and algorithm
+     */
+    private static class Key {
+
+        private final int[] source;
+        private final int[] destination;
+        private final PathfindingAlgorithms.ALGORITHM algorithm;
+
+        public Key(int[] source, int[] destination, PathfindingAlgorithms.ALGORITHM algorithm) {
+            this.source = source.clone();
+            this.destination = destination.clone();
+            this.algorithm = algorithm;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key))
+                return false;
+            Key other = (Key) o;
+            return this.algorithm == other.algorithm && Arrays.equals(this.source, other.source) && Arrays.equals(this.destination, other.destination);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * Arrays.hashCode(this.source) + Arrays.hashCode(this.destination)) + this.algorithm.hashCode();
+        }
+
+    }
+
+    /**
+     * A class to hold a cached path and the versions of the regions its search explored
+     */
+    private static class CachedPath {
+
+        private final PathResult result;
+        private final LinkedList<int[]> painted;
+        private final boolean regional;
+        private final int[] regions;
+        private final long[] versions;
+        private final long version;
+
+        /**
+         * Creates a new entry from the markings the last search left on the grid
+         * @param grid - the grid that was searched
+         * @param result - the path the search found, null if none
+         * @param regional - whether the path only depends on the regions the search explored
+         * @param version - the version of the grid that was searched
+         */
+        public CachedPath(Grid grid, PathResult result, boolean regional, long version) {
+            this.result = result;
+            this.painted = new LinkedList<>();
+            this.regional = result != null && regional;
+            this.version = version;
+            // collect the regions of every explored tile and its neighbours, a wall next to the explored area may open a shorter path
+            HashSet<Integer> explored = new HashSet<>();
+            addRegions(grid, grid.getSource(), explored);
+            addRegions(grid, grid.getDestination(), explored);
+            for (GridConstants.Visitor visitor : grid.getVisitorLog()) {
+                int[] tile = {(int) visitor.getPoint().getX(), (int) visitor.getPoint().getY()};
+                if (result != null && visitor.getType() == GridConstants.TILE_TYPES.PATH)
+                    this.painted.add(tile);
+                addRegions(grid, tile, explored);
+            }
+            // save the current version of each region
+            this.regions = new int[explored.size()];
+            this.versions = new long[explored.size()];
+            int i = 0;
+            for (int region : explored) {
+                this.regions[i] = region;
+                this.versions[i++] = grid.getRegionVersion(region);
+            }
+        }
+
+        // A method to add the regions of a tile and its neighbours to a set
+        private static void addRegions(Grid grid, int[] tile, HashSet<Integer> regions) {
+            regions.add(grid.getRegionIndex(tile[0], tile[1]));
+            if (tile[0] > 0)
+                regions.add(grid.getRegionIndex(tile[0] - 1, tile[1]));
+            if (tile[0] + 1 < grid.getWidth())
+                regions.add(grid.getRegionIndex(tile[0] + 1, tile[1]));
+            if (tile[1] > 0)
+                regions.add(grid.getRegionIndex(tile[0], tile[1] - 1));
+            if (tile[1] + 1 < grid.getHeight())
+                regions.add(grid.getRegionIndex(tile[0], tile[1] + 1));
+        }
+
+        /**
+         * A method to check that none of the explored regions changed since the path was found <br>
+         * (other paths, like a missing path, may be changed by an edit anywhere on the grid)
+         * @param grid - the grid the path was found on
+         * @return true if the cached path is still valid, false otherwise
+         */
+        public boolean isValid(Grid grid) {
+            if (!this.regional)
+                return grid.getVersion() == this.version;
+            for (int i = 0; i < this.regions.length; i++)
+                if (grid.getRegionVersion(this.regions[i]) != this.versions[i])
+                    return false;
+            return true;
+        }
+
+    }
+
+}
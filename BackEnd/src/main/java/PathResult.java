@@ -0,0 +1,100 @@
+import java.util.Collection;
+
+/**
+ * A class to hold a path found by a pathfinding algorithm <br>
+ * the path is immutable and stored as packed tile indexes (see Grid.getIndex), from the source to the destination <br>
+ * most algorithms list every tile along the path, each next to the one before it, but the any-angle algorithms
+ * (ThetaStar) only list the waypoints where the path turns: consecutive waypoints are in line of sight of each other,
+ * and the tiles between them are not part of the result
+ */
+public class PathResult {
+
+    // The packed tiles along the path (or its waypoints)
+    private final int[] tiles;
+
+    // The cost of the path
+    private final double cost;
+
+    // The width of the grid the path was found on, used to unpack the tiles
+    private final int width;
+
+    /**
+     * A constructor to create a new path result
+     * @param tiles - the packed indexes of the tiles (or waypoints) along the path, from source to destination
+     * @param cost - the cost of the path (the distance travelled along it)
+     * @param width - the width of the grid the path was found on
+     */
+    public PathResult(int[] tiles, double cost, int width) {
+        this.tiles = tiles.clone();
+        this.cost = cost;
+        this.width = width;
+    }
+
+    /**
+     * A constructor to create a new path result for a path made of single steps (each step costs 1)
+     * @param tiles - the packed indexes of the tiles along the path, from source to destination
+     * @param width - the width of the grid the path was found on
+     */
+    public PathResult(Collection<Integer> tiles, int width) {
+        this.tiles = new int[tiles.size()];
+        int i = 0;
+        for (int tile : tiles)
+            this.tiles[i++] = tile;
+        this.cost = this.tiles.length - 1;
+        this.width = width;
+    }
+
+    /**
+     * A method to get the number of tiles listed along the path <br>
+     * (for a waypoint path this counts the waypoints, not the tiles travelled, see getCost for the distance)
+     * @return the number of tiles, including the source and destination
+     */
+    public int getLength() {
+        return this.tiles.length;
+    }
+
+    /**
+     * A method to get the cost of the path
+     * @return the distance travelled along the path (the number of steps for paths of adjacent tiles,
+     * the euclidean length of the lines between the waypoints for waypoint paths)
+     */
+    public double getCost() {
+        return this.cost;
+    }
+
+    /**
+     * A method to get a tile (or waypoint) along the path
+     * @param i - the position of the tile in the path
+     * @return the packed index of the tile
+     */
+    public int getTile(int i) {
+        return this.tiles[i];
+    }
+
+    /**
+     * A method to get the width index of a tile along the path
+     * @param i - the position of the tile in the path
+     * @return the width index of the tile
+     */
+    public int getX(int i) {
+        return this.tiles[i] % this.width;
+    }
+
+    /**
+     * A method to get the height index of a tile along the path
+     * @param i - the position of the tile in the path
+     * @return the height index of the tile
+     */
+    public int getY(int i) {
+        return this.tiles[i] / this.width;
+    }
+
+    /**
+     * A method to get all tiles along the path
+     * @return a copy of the packed tile indexes, from source to destination
+     */
+    public int[] getTiles() {
+        return this.tiles.clone();
+    }
+
+}
@@ -2,9 +2,13 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.function.ToDoubleBiFunction;
 
 /**
- * A class that contains implementations of pathfinding algorithms
+ * A class that contains implementations of pathfinding algorithms <br>
+ * the searches read a snapshot of the grid, so every search sees a single version of it even while it is edited
+ * (the markings are still written to the grid itself)
  */
 public class PathfindingAlgorithms {
 
@@ -16,6 +20,37 @@ public class PathfindingAlgorithms {
         RIGHT
     }
 
+    // the available pathfinding algorithms
+    public enum ALGORITHM {
+        ASTAR,
+        DIJKSTRA,
+        DFS,
+        BFS,
+        PARALLEL_BFS,
+        THETA_STAR,
+        LAZY_THETA_STAR,
+        IDA_STAR
+    }
+
+    /**
+     * A method to run a pathfinding algorithm on a grid
+     * @param grid - the grid to work on
+     * @param algorithm - the algorithm to use
+     * @return the path found, null otherwise (marks path on grid if found)
+     */
+    public static PathResult solve(Grid grid, ALGORITHM algorithm) {
+        return switch (algorithm) {
+            case ASTAR -> AStar(grid);
+            case DIJKSTRA -> Dijkstra(grid);
+            case DFS -> DFS(grid);
+            case BFS -> BFS(grid);
+            case PARALLEL_BFS -> ParallelBFS.solve(grid);
+            case THETA_STAR -> ThetaStar.solve(grid);
+            case LAZY_THETA_STAR -> ThetaStar.solveLazy(grid);
+            case IDA_STAR -> IDAStar.solve(grid);
+        };
+    }
+
     /**
      * A method to get the neighbor of a source from a given direction
      * @param source - the source tile
@@ -47,41 +82,61 @@ public class PathfindingAlgorithms {
         }
     }
 
+    /**
+     * A implementation of the 'depth first search' pathfinding algorithm, with the calling thread's random
+     * @param grid - the grid to work on
+     * @return the path found, null otherwise (marks path on grid if found)
+     */
+    public static PathResult DFS(Grid grid) {
+        return DFS(grid, UtilityMethods.getRandom());
+    }
+
     /**
      * A implementation of the 'depth first search' pathfinding algorithm
      * @param grid - the grid to work on
-     * @return true if found path, false otherwise (marks path on grid if found)
+     * @param random - the random used to order the search, the same seed always gives the same search
+     * @return the path found, null otherwise (marks path on grid if found)
      */
-    public static boolean DFS(Grid grid) {
-        if (grid.getSource() == null || grid.getDestination() == null)
-            return false;
-        else {
-            grid.clearVisitorLog();
-            return DFS_code(grid, grid.getSource());
-        }
+    public static PathResult DFS(Grid grid, SplittableRandom random) {
+        // take a snapshot to search
+        GridSnapshot snapshot = grid.snapshot();
+        if (snapshot.getSource() == null || snapshot.getDestination() == null)
+            return null;
+        grid.clearVisitorLog();
+        // no need to search if the destination can't be reached
+        if (grid.getConnectedComponents().isDisconnected(snapshot, snapshot.getSource(), snapshot.getDestination()))
+            return null;
+        // the tiles along the path, collected while returning from the recursion
+        LinkedList<Integer> path = new LinkedList<>();
+        boolean[][] reached = new boolean[snapshot.getWidth()][snapshot.getHeight()];
+        if (!DFS_code(grid, snapshot, snapshot.getSource(), reached, path, random))
+            return null;
+        return new PathResult(path, grid.getWidth());
     }
 
     // the algorithm recursive code
-    private static boolean DFS_code(Grid grid, int[] source) {
+    private static boolean DFS_code(Grid grid, GridSnapshot snapshot, int[] source, boolean[][] reached, LinkedList<Integer> path, SplittableRandom random) {
         // if destination is found return true
-        if (grid.getTileType(source[0], source[1]) == GridConstants.TILE_TYPES.DESTINATION)
+        if (snapshot.getTileType(source[0], source[1]) == GridConstants.TILE_TYPES.DESTINATION) {
+            path.addFirst(grid.getIndex(source[0], source[1]));
             return true;
+        }
         // else mark tile as visited
-        if (grid.getTileType(source[0], source[1]) == GridConstants.TILE_TYPES.EMPTY)
-            grid.setTileType(source[0], source[1], GridConstants.TILE_TYPES.VISITED);
+        reached[source[0]][source[1]] = true;
+        grid.replaceTileType(source[0], source[1], GridConstants.TILE_TYPES.EMPTY, GridConstants.TILE_TYPES.VISITED);
         // randomize search order
         DIRECTION[] directions = {DIRECTION.UP, DIRECTION.DOWN, DIRECTION.LEFT, DIRECTION.RIGHT};
-        UtilityMethods.shuffleArray(directions);
+        UtilityMethods.shuffleArray(directions, random);
         // check nearby tiles
         for (DIRECTION direction : directions) {
             int[] neighbor = getNeighbor(source, direction);
-            // check neighbor tile is traversable
-            if (!grid.isInGrid(neighbor[0], neighbor[1]) || (grid.getTileType(neighbor[0], neighbor[1]) != GridConstants.TILE_TYPES.EMPTY && grid.getTileType(neighbor[0], neighbor[1]) != GridConstants.TILE_TYPES.DESTINATION))
+            // check neighbor tile is traversable and not reached yet
+            if (!snapshot.isInGrid(neighbor[0], neighbor[1]) || reached[neighbor[0]][neighbor[1]] || (snapshot.getTileType(neighbor[0], neighbor[1]) != GridConstants.TILE_TYPES.EMPTY && snapshot.getTileType(neighbor[0], neighbor[1]) != GridConstants.TILE_TYPES.DESTINATION))
                 continue;
             // go to neighbor and return true if destination found
-            if (DFS_code(grid, neighbor)) {
-                if (grid.getTileType(source[0], source[1]) == GridConstants.TILE_TYPES.VISITED)
-                    grid.setTileType(source[0], source[1], GridConstants.TILE_TYPES.PATH);
+            if (DFS_code(grid, snapshot, neighbor, reached, path, random)) {
+                grid.replaceTileType(source[0], source[1], GridConstants.TILE_TYPES.VISITED, GridConstants.TILE_TYPES.PATH);
+                path.addFirst(grid.getIndex(source[0], source[1]));
                 return true;
             }
         }
@@ -89,90 +144,109 @@ public class PathfindingAlgorithms {
         return false;
     }
 
+    // A method to trace the path from the destination back to the source, marking it on the grid
+    private static PathResult tracePath(Grid grid, int[][][] prev, int[] source, int[] destination) {
+        LinkedList<Integer> path = new LinkedList<>();
+        path.addFirst(grid.getIndex(destination[0], destination[1]));
+        int[] current = destination;
+        // step back until the source is reached (checked first, the destination may be the source)
+        while (!Arrays.equals(current, source)) {
+            current = prev[current[0]][current[1]];
+            // if path stops before source
+            if (current == null)
+                return null;
+            path.addFirst(grid.getIndex(current[0], current[1]));
+            // mark vertex as path (the source is not visited, so it keeps its type)
+            grid.replaceTileType(current[0], current[1], GridConstants.TILE_TYPES.VISITED, GridConstants.TILE_TYPES.PATH);
+        }
+        return new PathResult(path, grid.getWidth());
+    }
+
     /**
      * A implementation of the 'BFS' pathfinding algorithm
      * @param grid - the grid to work on
-     * @return true if found path, false otherwise (marks path on grid if found)
+     * @return the path found, null otherwise (marks path on grid if found)
      */
-    public static boolean BFS(Grid grid) {
+    public static PathResult BFS(Grid grid) {
         grid.clearVisitorLog();
+        // take a snapshot to search
+        GridSnapshot snapshot = grid.snapshot();
         // all possible search directions
         DIRECTION[] directions = {DIRECTION.UP, DIRECTION.DOWN, DIRECTION.LEFT, DIRECTION.RIGHT};
-        // empty map for previous vertexes
-        int[][][] prev = new int[grid.getWidth()][grid.getHeight()][2];
+        // empty map for previous vertexes (null until a vertex is reached)
+        int[][][] prev = new int[grid.getWidth()][grid.getHeight()][];
+        // get the source and vertex
+        int[] source = snapshot.getSource();
+        int[] destination = snapshot.getDestination();
         // create a vertex queue containing the source vertex
         Queue<int[]> vertexQueue = new LinkedList<>();
-        vertexQueue.add(grid.getSource());
-        // get the source and vertex
-        int[] source = grid.getSource();
-        int[] destination = grid.getDestination();
+        vertexQueue.add(source);
         // check source and destination are defined
         if (source == null || destination == null)
-            return false;
+            return null;
+        // no need to search if the destination can't be reached
+        if (grid.getConnectedComponents().isDisconnected(snapshot, source, destination))
+            return null;
+        // mark of vertexes already added to the queue, so each keeps the prev that reached it first
+        boolean[][] discovered = new boolean[grid.getWidth()][grid.getHeight()];
+        discovered[source[0]][source[1]] = true;
         while (!vertexQueue.isEmpty()) {
             int[] current = vertexQueue.poll();
             // check if destination reached
-            if (Arrays.equals(current, destination)) {
-                // trace path to source
-                while (true) {
-                    current = prev[current[0]][current[1]];
-                    // if path invalid return false
-                    if (current == null)
-                        return false;
-                    // if source found return true
-                    if (Arrays.equals(current, source))
-                        return true;
-                    // mark current cell as visited
-                    grid.setTileType(current[0], current[1], GridConstants.TILE_TYPES.PATH);
-                }
-            }
+            if (Arrays.equals(current, destination))
+                return tracePath(grid, prev, source, destination);
             // for neighbor of vertex
             for (DIRECTION direction : directions) {
                 int[] neighbor = getNeighbor(current, direction);
                 // check if neighbor valid
-                if (!grid.isInGrid(neighbor[0], neighbor[1]) || grid.getTileType(neighbor[0], neighbor[1]) == GridConstants.TILE_TYPES.WALL || grid.getTileType(neighbor[0], neighbor[1]) == GridConstants.TILE_TYPES.VISITED)
+                if (!snapshot.isInGrid(neighbor[0], neighbor[1]) || discovered[neighbor[0]][neighbor[1]] || snapshot.getTileType(neighbor[0], neighbor[1]) == GridConstants.TILE_TYPES.WALL || snapshot.getTileType(neighbor[0], neighbor[1]) == GridConstants.TILE_TYPES.VISITED)
                     continue;
                 // add neighbor to queue
                 vertexQueue.add(neighbor);
+                discovered[neighbor[0]][neighbor[1]] = true;
                 // set prev of neighbor to current node
                 prev[neighbor[0]][neighbor[1]] = current;
                 // mark as visited if empty
-                if (grid.getTileType(neighbor[0], neighbor[1]) == GridConstants.TILE_TYPES.EMPTY)
-                    grid.setTileType(neighbor[0], neighbor[1], GridConstants.TILE_TYPES.VISITED);
+                grid.replaceTileType(neighbor[0], neighbor[1], GridConstants.TILE_TYPES.EMPTY, GridConstants.TILE_TYPES.VISITED);
             }
         }
-        // return false if destination not found
-        return false;
+        // return null if destination not found
+        return null;
     }
 
     /**
      * A implementation of the 'Dijkstra' pathfinding algorithm
      * @param grid - the grid to work on
-     * @return true if found path, false otherwise (marks path on grid if found)
+     * @return the path found, null otherwise (marks path on grid if found)
      */
-    public static boolean Dijkstra(Grid grid) {
+    public static PathResult Dijkstra(Grid grid) {
         grid.clearVisitorLog();
+        // take a snapshot to search
+        GridSnapshot snapshot = grid.snapshot();
         // all possible search directions
         DIRECTION[] directions = {DIRECTION.UP, DIRECTION.DOWN, DIRECTION.LEFT, DIRECTION.RIGHT};
         // vertex set
         HashSet<int[]> vertexes = new HashSet<>();
         // vertex distances
         double[][] distances = new double[grid.getWidth()][grid.getHeight()];
-        // empty map for previous vertexes
-        int[][][] prev = new int[grid.getWidth()][grid.getHeight()][2];
+        // empty map for previous vertexes (null until a vertex is reached)
+        int[][][] prev = new int[grid.getWidth()][grid.getHeight()][];
         // set every vertex's distance to POSITIVE_INFINITY and add it to the vertex set
         for (int i = 0; i < grid.getWidth(); i++)
             for (int j = 0; j < grid.getHeight(); j++) {
                 distances[i][j] = Double.POSITIVE_INFINITY;
-                if (grid.getTileType(i, j) != GridConstants.TILE_TYPES.WALL)
+                if (snapshot.getTileType(i, j) != GridConstants.TILE_TYPES.WALL)
                     vertexes.add(new int[] {i, j});
             }
         // get the destination and source
-        int[] source = grid.getSource();
-        int[] destination = grid.getDestination();
+        int[] source = snapshot.getSource();
+        int[] destination = snapshot.getDestination();
         // check source and destination are defined
         if (source == null || destination == null)
-            return false;
+            return null;
+        // no need to search if the destination can't be reached
+        if (grid.getConnectedComponents().isDisconnected(snapshot, source, destination))
+            return null;
         // set source distance to 0
         distances[source[0]][source[1]] = 0;
         while (!vertexes.isEmpty()) {
@@ -184,27 +258,15 @@ public class PathfindingAlgorithms {
             // remove it from the set
             vertexes.remove(current);
             // mark as visited if empty
-            if (grid.getTileType(current[0], current[1]) == GridConstants.TILE_TYPES.EMPTY)
-                grid.setTileType(current[0], current[1], GridConstants.TILE_TYPES.VISITED);
+            grid.replaceTileType(current[0], current[1], GridConstants.TILE_TYPES.EMPTY, GridConstants.TILE_TYPES.VISITED);
             // check if destination is reached
-            if (Arrays.equals(current, destination)) {
-                while (true) {
-                    current = prev[current[0]][current[1]];
-                    // if path stops before source
-                    if (current == null)
-                        return false;
-                    // if source is reached
-                    if (Arrays.equals(current, source))
-                        return true;
-                    // mark vertex as path
-                    grid.setTileType(current[0], current[1], GridConstants.TILE_TYPES.PATH);
-                }
-            }
+            if (Arrays.equals(current, destination))
+                return tracePath(grid, prev, source, destination);
             // for each neighbor of the current vertex
             for (DIRECTION direction : directions) {
                 int[] neighbor = getNeighbor(current, direction);
                 // check if its valid
-                if (!grid.isInGrid(neighbor[0], neighbor[1]) || grid.getTileType(neighbor[0], neighbor[1]) == GridConstants.TILE_TYPES.WALL)
+                if (!snapshot.isInGrid(neighbor[0], neighbor[1]) || snapshot.getTileType(neighbor[0], neighbor[1]) == GridConstants.TILE_TYPES.WALL)
                     continue;
                 // if yes update it's distances if this is a better path
                 double alt = distances[current[0]][current[1]] + 1;
@@ -213,12 +275,11 @@ public class PathfindingAlgorithms {
                     prev[neighbor[0]][neighbor[1]] = current;
                 }
                 // mark as visited if empty
-                if (grid.getTileType(neighbor[0], neighbor[1]) == GridConstants.TILE_TYPES.EMPTY)
-                    grid.setTileType(neighbor[0], neighbor[1], GridConstants.TILE_TYPES.VISITED);
+                grid.replaceTileType(neighbor[0], neighbor[1], GridConstants.TILE_TYPES.EMPTY, GridConstants.TILE_TYPES.VISITED);
             }
         }
         // if destination is not reached
-        return false;
+        return null;
     }
 
     /**
@@ -237,17 +298,38 @@ public class PathfindingAlgorithms {
     /**
      * A implementation of the 'A*' (A star) pathfinding algorithm
      * @param grid - the grid to work on
-     * @return true if found path, false otherwise (marks path on grid if found)
+     * @return the path found, null otherwise (marks path on grid if found)
+     */
+    public static PathResult AStar(Grid grid) {
+        return AStar(grid, PathfindingAlgorithms::distance);
+    }
+
+    /**
+     * A implementation of the 'A*' (A star) pathfinding algorithm guided by landmark (ALT) lower bounds <br>
+     * falls back to the euclidean heuristic if the landmarks are outdated
+     * @param grid - the grid to work on
+     * @param landmarks - landmarks preprocessed on the grid
+     * @return the path found, null otherwise (marks path on grid if found)
      */
-    public static boolean AStar(Grid grid) {
+    public static PathResult AStar(Grid grid, Landmarks landmarks) {
+        if (!landmarks.isValidFor(grid))
+            return AStar(grid);
+        // both bounds are admissible, so is their maximum
+        return AStar(grid, (point1, point2) -> Math.max(distance(point1, point2), landmarks.getLowerBound(point1, point2)));
+    }
+
+    // the A* algorithm code, using a given heuristic
+    private static PathResult AStar(Grid grid, ToDoubleBiFunction<int[], int[]> heuristic) {
         grid.clearVisitorLog();
+        // take a snapshot to search
+        GridSnapshot snapshot = grid.snapshot();
         // all possible search directions
         DIRECTION[] directions = {DIRECTION.UP, DIRECTION.DOWN, DIRECTION.LEFT, DIRECTION.RIGHT};
         // vertex set, initialized with the source
         HashSet<int[]> vertexes = new HashSet<>();
-        vertexes.add(grid.getSource());
-        // empty map for previous vertexes
-        int[][][] prev = new int[grid.getWidth()][grid.getHeight()][2];
+        vertexes.add(snapshot.getSource());
+        // empty map for previous vertexes (null until a vertex is reached)
+        int[][][] prev = new int[grid.getWidth()][grid.getHeight()][];
         // distance matrices, heuristic and weight based
         double[][] gDistances = new double[grid.getWidth()][grid.getHeight()];
         double[][] fDistances = new double[grid.getWidth()][grid.getHeight()];
@@ -258,14 +340,17 @@ public class PathfindingAlgorithms {
                 fDistances[i][j] = Double.POSITIVE_INFINITY;
             }
         // get the source and destination
-        int[] source = grid.getSource();
-        int[] destination = grid.getDestination();
+        int[] source = snapshot.getSource();
+        int[] destination = snapshot.getDestination();
         // check source and destination are defined
         if (source == null || destination == null)
-            return false;
+            return null;
+        // no need to search if the destination can't be reached
+        if (grid.getConnectedComponents().isDisconnected(snapshot, source, destination))
+            return null;
         // set source distances
         gDistances[source[0]][source[1]] = 0;
-        fDistances[source[0]][source[1]] = distance(source, destination);
+        fDistances[source[0]][source[1]] = heuristic.applyAsDouble(source, destination);
         while (!vertexes.isEmpty()) {
             // find vertex from vertex set with smallest fDistance
             int[] current = null;
@@ -273,29 +358,17 @@ public class PathfindingAlgorithms {
                 if (current == null || fDistances[vertex[0]][vertex[1]] < fDistances[current[0]][current[1]])
                     current = vertex;
             // check if destination is reached
-            if (Arrays.equals(current, destination)) {
-                while (true) {
-                    current = prev[current[0]][current[1]];
-                    // if path stops before source
-                    if (current == null)
-                        return false;
-                    // if source is reached
-                    if (Arrays.equals(current, source))
-                        return true;
-                    // mark vertex as path
-                    grid.setTileType(current[0], current[1], GridConstants.TILE_TYPES.PATH);
-                }
-            }
+            if (Arrays.equals(current, destination))
+                return tracePath(grid, prev, source, destination);
             // remove current vertex from vertex set
             vertexes.remove(current);
             // mark as visited if empty
-            if (grid.getTileType(current[0], current[1]) == GridConstants.TILE_TYPES.EMPTY)
-                grid.setTileType(current[0], current[1], GridConstants.TILE_TYPES.VISITED);
+            grid.replaceTileType(current[0], current[1], GridConstants.TILE_TYPES.EMPTY, GridConstants.TILE_TYPES.VISITED);
             // expand current vertex neighbours
             for (DIRECTION direction : directions) {
                 int[] neighbor = getNeighbor(current, direction);
                 // check if neighbor valid
-                if (!grid.isInGrid(neighbor[0], neighbor[1]) || grid.getTileType(neighbor[0], neighbor[1]) == GridConstants.TILE_TYPES.WALL)
+                if (!snapshot.isInGrid(neighbor[0], neighbor[1]) || snapshot.getTileType(neighbor[0], neighbor[1]) == GridConstants.TILE_TYPES.WALL)
                     continue;
                 // check if alternative path to neighbor is better
                 double alt = gDistances[current[0]][current[1]] + 1;
@@ -304,17 +377,16 @@ public class PathfindingAlgorithms {
                     prev[neighbor[0]][neighbor[1]] = current;
                     // and update distances accordingly
                     gDistances[neighbor[0]][neighbor[1]] = alt;
-                    fDistances[neighbor[0]][neighbor[1]] = alt + distance(neighbor, destination);
+                    fDistances[neighbor[0]][neighbor[1]] = alt + heuristic.applyAsDouble(neighbor, destination);
                     // then add it to the vertex set
                     vertexes.add(neighbor);
                     // mark as visited if empty
-                    if (grid.getTileType(current[0], current[1]) == GridConstants.TILE_TYPES.EMPTY)
-                        grid.setTileType(current[0], current[1], GridConstants.TILE_TYPES.VISITED);
+                    grid.replaceTileType(current[0], current[1], GridConstants.TILE_TYPES.EMPTY, GridConstants.TILE_TYPES.VISITED);
                 }
             }
         }
         // if destination not reached
-        return false;
+        return null;
     }
 
 }
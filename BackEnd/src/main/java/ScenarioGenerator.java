@@ -0,0 +1,257 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A class to generate reproducible workloads for validating and timing the pathfinding algorithms <br>
+ * every scenario is a grid of one of the map families (mazes, random obstacles, rooms and doors) and a set of
+ * queries between connected tiles with their known optimal hop length, all derived from a single seed <br>
+ * the optimal lengths are measured by a search per query, which dominates generating large scenarios
+ */
+public class ScenarioGenerator {
+
+    // the available map families
+    public enum FAMILY {
+        MAZE,
+        OBSTACLES,
+        ROOMS
+    }
+
+    // the number of random picks tried before giving up on placing a query
+    private static final int MAX_ATTEMPTS = 10000;
+
+    /**
+     * A method to generate a maze scenario
+     * @param width - the width of the grid
+     * @param height - the height of the grid
+     * @param queries - the number of queries
+     * @param seed - the seed, the same seed always gives the same scenario
+     * @return the scenario
+     */
+    public static Scenario maze(int width, int height, int queries, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Grid grid = new Grid(width, height);
+        grid.beginTransaction();
+        try {
+            grid.generateMaze(random.split());
+            // the queries bring their own endpoints, so the maze's source and destination are left as empty tiles
+            grid.setTileType(grid.getSource()[0], grid.getSource()[1], GridConstants.TILE_TYPES.EMPTY);
+            grid.setTileType(grid.getDestination()[0], grid.getDestination()[1], GridConstants.TILE_TYPES.EMPTY);
+        }
+        finally {
+            grid.commitTransaction();
+        }
+        return new Scenario(FAMILY.MAZE, seed, grid, queries, random);
+    }
+
+    /**
+     * A method to generate a scenario of randomly placed walls
+     * @param width - the width of the grid
+     * @param height - the height of the grid
+     * @param density - the chance of each tile to be a wall
+     * @param queries - the number of queries
+     * @param seed - the seed, the same seed always gives the same scenario
+     * @return the scenario
+     * @throws IllegalArgumentException - if the density is not in [0, 1)
+     */
+    public static Scenario obstacles(int width, int height, double density, int queries, long seed) throws IllegalArgumentException {
+        if (density < 0 || density >= 1)
+            throw new IllegalArgumentException("Obstacle density must be in [0, 1)!");
+        SplittableRandom random = new SplittableRandom(seed);
+        SplittableRandom walls = random.split();
+        Grid grid = new Grid(width, height);
+        grid.beginTransaction();
+        try {
+            for (int x = 0; x < width; x++)
+                for (int y = 0; y < height; y++)
+                    if (walls.nextDouble() < density)
+                        grid.setTileType(x, y, GridConstants.TILE_TYPES.WALL);
+        }
+        finally {
+            grid.commitTransaction();
+        }
+        return new Scenario(FAMILY.OBSTACLES, seed, grid, queries, random);
+    }
+
+    /**
+     * A method to generate a scenario of square rooms, with a door in the wall between every 2 neighbouring rooms
+     * @param width - the width of the grid
+     * @param height - the height of the grid
+     * @param roomSize - the side length of the rooms
+     * @param queries - the number of queries
+     * @param seed - the seed, the same seed always gives the same scenario
+     * @return the scenario
+     * @throws IllegalArgumentException - if the room size is not positive
+     */
+    public static Scenario rooms(int width, int height, int roomSize, int queries, long seed) throws IllegalArgumentException {
+        if (roomSize <= 0)
+            throw new IllegalArgumentException("Room size must be positive!");
+        SplittableRandom random = new SplittableRandom(seed);
+        SplittableRandom doors = random.split();
+        Grid grid = new Grid(width, height);
+        int period = roomSize + 1;
+        grid.beginTransaction();
+        try {
+            // build the walls between the rooms
+            for (int x = 0; x < width; x++)
+                for (int y = 0; y < height; y++)
+                    if (x % period == roomSize || y % period == roomSize)
+                        grid.setTileType(x, y, GridConstants.TILE_TYPES.WALL);
+            // open a door to the room on the right and the room below of every room
+            for (int roomX = 0; roomX * period < width; roomX++)
+                for (int roomY = 0; roomY * period < height; roomY++) {
+                    int left = roomX * period, top = roomY * period;
+                    int wallX = left + roomSize, wallY = top + roomSize;
+                    if (wallX + 1 < width)
+                        grid.setTileType(wallX, top + doors.nextInt(Math.min(roomSize, height - top)), GridConstants.TILE_TYPES.EMPTY);
+                    if (wallY + 1 < height)
+                        grid.setTileType(left + doors.nextInt(Math.min(roomSize, width - left)), wallY, GridConstants.TILE_TYPES.EMPTY);
+                }
+        }
+        finally {
+            grid.commitTransaction();
+        }
+        return new Scenario(FAMILY.ROOMS, seed, grid, queries, random);
+    }
+
+    /**
+     * A class to hold a generated grid and its queries
+     */
+    public static class Scenario {
+
+        // The map family and seed the scenario was generated from
+        private final FAMILY family;
+        private final long seed;
+
+        // The generated grid
+        private final Grid grid;
+
+        // The queries, each as {source x, source y, destination x, destination y}, and their optimal hop lengths
+        private final int[][] queries;
+        private final int[] optimalLengths;
+
+        // A constructor to place the queries on a generated grid
+        private Scenario(FAMILY family, long seed, Grid grid, int count, SplittableRandom random) {
+            this.family = family;
+            this.seed = seed;
+            this.grid = grid;
+            this.queries = new int[count][];
+            this.optimalLengths = new int[count];
+            // a single engine measures every query, packing the grid once and reusing its buffers
+            // (each query still costs a wavefront out to its destination, the tiles closer to the source than it)
+            WavefrontEngine wavefront = new WavefrontEngine(grid);
+            for (int i = 0; i < count; i++) {
+                int attempt = 0;
+                int[] source, destination;
+                // pick pairs of traversable tiles until a connected pair is found
+                do {
+                    if (attempt++ == MAX_ATTEMPTS)
+                        throw new IllegalArgumentException("Not enough connected tiles to place the queries!");
+                    source = new int[] {random.nextInt(grid.getWidth()), random.nextInt(grid.getHeight())};
+                    destination = new int[] {random.nextInt(grid.getWidth()), random.nextInt(grid.getHeight())};
+                } while (Arrays.equals(source, destination) || !grid.getConnectedComponents().isConnected(source, destination));
+                this.queries[i] = new int[] {source[0], source[1], destination[0], destination[1]};
+                this.optimalLengths[i] = wavefront.getDistance(source, destination);
+            }
+        }
+
+        /**
+         * A method to get the map family of the scenario
+         * @return the map family
+         */
+        public FAMILY getFamily() {
+            return this.family;
+        }
+
+        /**
+         * A method to get the seed the scenario was generated from
+         * @return the seed
+         */
+        public long getSeed() {
+            return this.seed;
+        }
+
+        /**
+         * A method to get the generated grid
+         * @return the grid
+         */
+        public Grid getGrid() {
+            return this.grid;
+        }
+
+        /**
+         * A method to get the number of queries
+         * @return the number of queries
+         */
+        public int getQueryCount() {
+            return this.queries.length;
+        }
+
+        /**
+         * A method to get a query
+         * @param i - the index of the query
+         * @return the query as {source x, source y, destination x, destination y}
+         */
+        public int[] getQuery(int i) {
+            return this.queries[i].clone();
+        }
+
+        /**
+         * A method to get the length of the shortest path of a query
+         * @param i - the index of the query
+         * @return the optimal number of steps from the query's source to its destination
+         */
+        public int getOptimalLength(int i) {
+            return this.optimalLengths[i];
+        }
+
+        /**
+         * A method to save the scenario as a grid file (see GridFiles) and a query file for HeadlessRunner <br>
+         * every query line is "sourceX sourceY destinationX destinationY # optimal length"
+         * @param gridFile - the file to write the grid to
+         * @param queryFile - the file to write the queries to
+         * @throws IOException - if a file can't be written
+         */
+        public void save(Path gridFile, Path queryFile) throws IOException {
+            GridFiles.save(this.grid, gridFile);
+            List<String> lines = new ArrayList<>(this.queries.length + 1);
+            lines.add("# " + this.family + " " + this.grid.getWidth() + "x" + this.grid.getHeight() + " seed " + this.seed);
+            for (int i = 0; i < this.queries.length; i++) {
+                int[] query = this.queries[i];
+                lines.add(query[0] + " " + query[1] + " " + query[2] + " " + query[3] + " # " + this.optimalLengths[i]);
+            }
+            Files.write(queryFile, lines);
+        }
+
+    }
+
+    /**
+     * The generator entry point <br>
+     * usage: ScenarioGenerator maze|obstacles|rooms width height queries seed outputPrefix [density|roomSize] <br>
+     * writes outputPrefix.map and outputPrefix.queries
+     * @param args - the command line arguments
+     * @throws IOException - if the output files can't be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 6 && args.length != 7) {
+            System.err.println("usage: ScenarioGenerator maze|obstacles|rooms width height queries seed outputPrefix [density|roomSize]");
+            System.exit(1);
+        }
+        int width = Integer.parseInt(args[1]);
+        int height = Integer.parseInt(args[2]);
+        int queries = Integer.parseInt(args[3]);
+        long seed = Long.parseLong(args[4]);
+        Scenario scenario = switch (FAMILY.valueOf(args[0].toUpperCase())) {
+            case MAZE -> maze(width, height, queries, seed);
+            case OBSTACLES -> obstacles(width, height, args.length == 7 ? Double.parseDouble(args[6]) : 0.3, queries, seed);
+            case ROOMS -> rooms(width, height, args.length == 7 ? Integer.parseInt(args[6]) : 8, queries, seed);
+        };
+        scenario.save(Paths.get(args[5] + ".map"), Paths.get(args[5] + ".queries"));
+    }
+
+}
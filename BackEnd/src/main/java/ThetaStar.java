@@ -0,0 +1,201 @@
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.PriorityQueue;
+
+/**
+ * An implementation of the 'Theta*' any-angle pathfinding algorithm and its lazy variant <br>
+ * like A* on an 8-connected grid, but a tile's parent may be any tile in line of sight of it,
+ * so the paths found are short lists of waypoints connected by straight lines
+ */
+public class ThetaStar {
+
+    // the neighbour offsets, orthogonal neighbours first
+    private static final int[] DX = {1, -1, 0, 0, 1, 1, -1, -1};
+    private static final int[] DY = {0, 0, 1, -1, 1, -1, 1, -1};
+
+    /**
+     * A implementation of the 'Theta*' pathfinding algorithm, checking line of sight for every generated tile
+     * @param grid - the grid to work on
+     * @return the waypoints of the path found, null otherwise (marks path on grid if found)
+     */
+    public static PathResult solve(Grid grid) {
+        return search(grid, false);
+    }
+
+    /**
+     * A implementation of the 'Lazy Theta*' pathfinding algorithm, checking line of sight only for expanded tiles
+     * @param grid - the grid to work on
+     * @return the waypoints of the path found, null otherwise (marks path on grid if found)
+     */
+    public static PathResult solveLazy(Grid grid) {
+        return search(grid, true);
+    }
+
+    // A method to check if a tile can be traversed
+    private static boolean isTraversable(GridSnapshot snapshot, int x, int y) {
+        return snapshot.isInGrid(x, y) && snapshot.getTileType(x, y) != GridConstants.TILE_TYPES.WALL;
+    }
+
+    // A method to check a move to a neighbouring tile doesn't cut the corner of a wall (also used by HeadlessRunner)
+    static boolean canMove(GridSnapshot snapshot, int x, int y, int dx, int dy) {
+        if (!isTraversable(snapshot, x + dx, y + dy))
+            return false;
+        return dx == 0 || dy == 0 || (isTraversable(snapshot, x + dx, y) && isTraversable(snapshot, x, y + dy));
+    }
+
+    /**
+     * A method to check if there is a line of sight between 2 tiles, using Bresenham's line algorithm <br>
+     * (diagonal steps along the line may not cut the corner of a wall)
+     * @param snapshot - a snapshot of the grid to check on
+     * @param x0 - the width index of the first tile
+     * @param y0 - the height index of the first tile
+     * @param x1 - the width index of the second tile
+     * @param y1 - the height index of the second tile
+     * @return true if every tile along the line is traversable, false otherwise
+     */
+    public static boolean lineOfSight(GridSnapshot snapshot, int x0, int y0, int x1, int y1) {
+        int dx = Math.abs(x1 - x0);
+        int dy = Math.abs(y1 - y0);
+        int sx = x0 < x1 ? 1 : -1;
+        int sy = y0 < y1 ? 1 : -1;
+        int error = dx - dy;
+        while (x0 != x1 || y0 != y1) {
+            int doubled = 2 * error;
+            int stepX = doubled > -dy ? sx : 0;
+            int stepY = doubled < dx ? sy : 0;
+            if (!canMove(snapshot, x0, y0, stepX, stepY))
+                return false;
+            if (stepX != 0) {
+                error -= dy;
+                x0 += stepX;
+            }
+            if (stepY != 0) {
+                error += dx;
+                y0 += stepY;
+            }
+        }
+        return true;
+    }
+
+    // A method to mark the tiles along a line between 2 tiles as path (the first tile excluded)
+    private static void markLine(Grid grid, int x0, int y0, int x1, int y1) {
+        int dx = Math.abs(x1 - x0);
+        int dy = Math.abs(y1 - y0);
+        int sx = x0 < x1 ? 1 : -1;
+        int sy = y0 < y1 ? 1 : -1;
+        int error = dx - dy;
+        while (x0 != x1 || y0 != y1) {
+            int doubled = 2 * error;
+            if (doubled > -dy) {
+                error -= dy;
+                x0 += sx;
+            }
+            if (doubled < dx) {
+                error += dx;
+                y0 += sy;
+            }
+            if (!grid.replaceTileType(x0, y0, GridConstants.TILE_TYPES.VISITED, GridConstants.TILE_TYPES.PATH))
+                grid.replaceTileType(x0, y0, GridConstants.TILE_TYPES.EMPTY, GridConstants.TILE_TYPES.PATH);
+        }
+    }
+
+    // A method to compute the euclidean distance between 2 tiles
+    private static double distance(Grid grid, int tile1, int tile2) {
+        return Math.hypot(grid.getX(tile1) - grid.getX(tile2), grid.getY(tile1) - grid.getY(tile2));
+    }
+
+    // the algorithm code
+    private static PathResult search(Grid grid, boolean lazy) {
+        grid.clearVisitorLog();
+        // search a snapshot, so the whole search sees a single version of the grid (markings still go to the grid)
+        GridSnapshot snapshot = grid.snapshot();
+        // get the source and destination
+        int[] sourcePoint = snapshot.getSource();
+        int[] destinationPoint = snapshot.getDestination();
+        // check source and destination are defined
+        if (sourcePoint == null || destinationPoint == null)
+            return null;
+        // no need to search if the destination can't be reached
+        if (grid.getConnectedComponents().isDisconnected(snapshot, sourcePoint, destinationPoint))
+            return null;
+        int source = grid.getIndex(sourcePoint[0], sourcePoint[1]);
+        int destination = grid.getIndex(destinationPoint[0], destinationPoint[1]);
+        // distances, parents and closed set of every tile
+        double[] gDistances = new double[grid.getWidth() * grid.getHeight()];
+        int[] parents = new int[gDistances.length];
+        boolean[] closed = new boolean[gDistances.length];
+        Arrays.fill(gDistances, Double.POSITIVE_INFINITY);
+        // open set ordered by fDistance, holding {fDistance, tile}
+        PriorityQueue<double[]> open = new PriorityQueue<>((entry1, entry2) -> Double.compare(entry1[0], entry2[0]));
+        gDistances[source] = 0;
+        parents[source] = source;
+        open.add(new double[] {distance(grid, source, destination), source});
+        while (!open.isEmpty()) {
+            double[] entry = open.poll();
+            int current = (int) entry[1];
+            // skip tiles that were already expanded
+            if (closed[current])
+                continue;
+            closed[current] = true;
+            int x = grid.getX(current);
+            int y = grid.getY(current);
+            int parent = parents[current];
+            // lazy theta* assumed line of sight when the tile was generated, fix its parent if there is none
+            if (lazy && !lineOfSight(snapshot, grid.getX(parent), grid.getY(parent), x, y)) {
+                gDistances[current] = Double.POSITIVE_INFINITY;
+                for (int direction = 0; direction < DX.length; direction++) {
+                    if (!canMove(snapshot, x, y, DX[direction], DY[direction]))
+                        continue;
+                    int neighbor = grid.getIndex(x + DX[direction], y + DY[direction]);
+                    double alt = gDistances[neighbor] + distance(grid, neighbor, current);
+                    if (closed[neighbor] && alt < gDistances[current]) {
+                        gDistances[current] = alt;
+                        parents[current] = neighbor;
+                    }
+                }
+                parent = parents[current];
+            }
+            // check if destination is reached
+            if (current == destination)
+                return tracePath(grid, parents, gDistances[destination], source, destination);
+            // mark as visited if empty
+            grid.replaceTileType(x, y, GridConstants.TILE_TYPES.EMPTY, GridConstants.TILE_TYPES.VISITED);
+            // expand current tile neighbours
+            for (int direction = 0; direction < DX.length; direction++) {
+                if (!canMove(snapshot, x, y, DX[direction], DY[direction]))
+                    continue;
+                int neighbor = grid.getIndex(x + DX[direction], y + DY[direction]);
+                if (closed[neighbor])
+                    continue;
+                // try to reach the neighbor straight from the current tile's parent
+                int from = parent;
+                if (!lazy && !lineOfSight(snapshot, grid.getX(parent), grid.getY(parent), x + DX[direction], y + DY[direction]))
+                    from = current;
+                double alt = gDistances[from] + distance(grid, from, neighbor);
+                if (alt < gDistances[neighbor]) {
+                    gDistances[neighbor] = alt;
+                    parents[neighbor] = from;
+                    open.add(new double[] {alt + distance(grid, neighbor, destination), neighbor});
+                }
+            }
+        }
+        // if destination not reached
+        return null;
+    }
+
+    // A method to collect the waypoints from the destination back to the source, marking the lines between them on the grid
+    private static PathResult tracePath(Grid grid, int[] parents, double cost, int source, int destination) {
+        LinkedList<Integer> waypoints = new LinkedList<>();
+        waypoints.addFirst(destination);
+        for (int current = destination; current != source; current = parents[current])
+            waypoints.addFirst(parents[current]);
+        int[] tiles = new int[waypoints.size()];
+        int i = 0;
+        for (int tile : waypoints)
+            tiles[i++] = tile;
+        for (i = 1; i < tiles.length; i++)
+            markLine(grid, grid.getX(tiles[i - 1]), grid.getY(tiles[i - 1]), grid.getX(tiles[i]), grid.getY(tiles[i]));
+        return new PathResult(tiles, cost, grid.getWidth());
+    }
+
+}
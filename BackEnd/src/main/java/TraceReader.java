@@ -0,0 +1,211 @@
+import java.awt.*;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A class to read back a trace file written by TraceWriter <br>
+ * the events are read through a small window of the file, and seeking jumps to the closest index point before
+ * the requested event, so only the events between them are decoded
+ */
+public class TraceReader implements Iterator<GridConstants.Visitor>, Closeable {
+
+    // the tile types, indexed by the type bits of an event
+    private static final GridConstants.TILE_TYPES[] TILE_TYPES = GridConstants.TILE_TYPES.values();
+
+    // The file being read
+    private final FileChannel channel;
+
+    // The dimensions of the grid the trace was recorded on
+    private final int width;
+    private final int height;
+
+    // The number of events between index points
+    private final int interval;
+
+    // The number of events in the trace
+    private final long eventCount;
+
+    // The file offset of every index point, and the offset the events end at
+    private final long[] index;
+    private final long end;
+
+    // The window of the file being decoded, and the file offset of its first byte
+    private final ByteBuffer buffer;
+    private long bufferOffset;
+
+    // The number of the next event, and the packed tile of the last one
+    private long position;
+    private int previous;
+
+    /**
+     * A constructor to open a trace file
+     * @param file - the file to read
+     * @throws IOException - if the file can't be read or is not a valid trace
+     */
+    public TraceReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = this.channel.size();
+            if (size < TraceWriter.HEADER_BYTES + TraceWriter.TRAILER_BYTES)
+                throw new IOException(file + " is too short to be a trace!");
+            ByteBuffer header = this.read(0, TraceWriter.HEADER_BYTES);
+            if (header.getInt() != TraceWriter.MAGIC)
+                throw new IOException(file + " is not a trace!");
+            this.width = header.getInt();
+            this.height = header.getInt();
+            this.interval = header.getInt();
+            if (this.width <= 0 || this.height <= 0 || this.interval <= 0)
+                throw new IOException(file + " has a damaged header!");
+            ByteBuffer trailer = this.read(size - TraceWriter.TRAILER_BYTES, TraceWriter.TRAILER_BYTES);
+            this.end = trailer.getLong();
+            this.eventCount = trailer.getLong();
+            // check the trailer before using it, the index has to fit between the events and the trailer
+            if (this.eventCount < 0 || this.end < TraceWriter.HEADER_BYTES || this.end > size - TraceWriter.TRAILER_BYTES)
+                throw new IOException(file + " has a damaged index!");
+            long points = this.eventCount / this.interval + (this.eventCount % this.interval == 0 ? 0 : 1);
+            long indexBytes = size - TraceWriter.TRAILER_BYTES - this.end;
+            if (indexBytes % Long.BYTES != 0 || points != indexBytes / Long.BYTES)
+                throw new IOException(file + " has a damaged index!");
+            this.index = new long[(int) points];
+            this.read(this.end, (int) points * Long.BYTES).asLongBuffer().get(this.index);
+            this.buffer = ByteBuffer.allocateDirect(1 << 16);
+            this.seek(0);
+        }
+        catch (IOException | RuntimeException e) {
+            // don't leak the file if it turns out not to be a valid trace
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    // A method to read a part of the file into a new buffer
+    private ByteBuffer read(long offset, int length) throws IOException {
+        ByteBuffer output = ByteBuffer.allocate(length);
+        while (output.hasRemaining())
+            if (this.channel.read(output, offset + output.position()) < 0)
+                throw new EOFException("Unexpected end of trace!");
+        return output.flip();
+    }
+
+    /**
+     * A method to get the width of the grid the trace was recorded on
+     * @return the width of the grid
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * A method to get the height of the grid the trace was recorded on
+     * @return the height of the grid
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * A method to get the number of events in the trace
+     * @return the number of events
+     */
+    public long getEventCount() {
+        return this.eventCount;
+    }
+
+    /**
+     * A method to get the number of the event next() will return
+     * @return the position in the trace
+     */
+    public long getPosition() {
+        return this.position;
+    }
+
+    /**
+     * A method to move to an event of the trace
+     * @param event - the number of the event next() should return
+     * @throws IndexOutOfBoundsException - if the event is not in [0, event count]
+     * @throws IOException - if reading the file fails
+     */
+    public void seek(long event) throws IndexOutOfBoundsException, IOException {
+        if (event < 0 || event > this.eventCount)
+            throw new IndexOutOfBoundsException("Event " + event + " is not in the trace!");
+        int point = (int) (event / this.interval);
+        this.position = (long) point * this.interval;
+        if (point == this.index.length)
+            return;
+        // jump to the index point, then decode up to the event
+        this.bufferOffset = this.index[point];
+        this.buffer.clear().limit(0);
+        while (this.position < event)
+            this.decode();
+    }
+
+    // A method to get the next byte of the events, moving the window forward if needed
+    private byte nextByte() throws IOException {
+        if (!this.buffer.hasRemaining()) {
+            this.bufferOffset += this.buffer.limit();
+            this.buffer.clear();
+            this.buffer.limit((int) Math.min(this.buffer.capacity(), this.end - this.bufferOffset));
+            while (this.buffer.hasRemaining())
+                if (this.channel.read(this.buffer, this.bufferOffset + this.buffer.position()) < 0)
+                    throw new EOFException("Unexpected end of trace!");
+            this.buffer.flip();
+            if (!this.buffer.hasRemaining())
+                throw new EOFException("Unexpected end of trace!");
+        }
+        return this.buffer.get();
+    }
+
+    // A method to decode the next event, returns its value (the packed tile, shifted left by 3 bits, combined with the type)
+    private long decode() throws IOException {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte next = this.nextByte();
+            value |= (long) (next & 0x7F) << shift;
+            if (next >= 0)
+                break;
+        }
+        // the difference restarts from 0 at every index point
+        if (this.position % this.interval == 0)
+            this.previous = 0;
+        long zigzag = value >>> 3;
+        this.previous += (int) ((zigzag >>> 1) ^ -(zigzag & 1));
+        this.position++;
+        // a damaged file can decode to tiles outside the grid or to types that don't exist
+        if (this.previous < 0 || this.previous >= (long) this.width * this.height || (value & 7) >= TILE_TYPES.length)
+            throw new IOException("The trace has a damaged event!");
+        return (long) this.previous << 3 | (value & 7);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return this.position < this.eventCount;
+    }
+
+    @Override
+    public GridConstants.Visitor next() {
+        if (!this.hasNext())
+            throw new NoSuchElementException("The trace has no more events!");
+        try {
+            long event = this.decode();
+            int tile = (int) (event >>> 3);
+            return new GridConstants.Visitor(new Point(tile % this.width, tile / this.width), TILE_TYPES[(int) (event & 7)]);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+}
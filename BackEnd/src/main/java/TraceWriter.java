@@ -0,0 +1,219 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A class to stream a search trace (the tiles marked as visited / path, in order) to a compact file <br>
+ * every event is stored as a single varint: the zigzag-encoded difference from the previous event's packed tile index,
+ * shifted left by 3 bits and combined with the tile type <br>
+ * every INTERVAL events the difference restarts from 0 and the event's file offset is added to an index, so a
+ * TraceReader can seek to any event without decoding the whole trace <br>
+ * file layout: header (int MAGIC, int width, int height, int interval), the events, the index
+ * (one long offset per index point), and a trailer (long index offset, long event count) <br>
+ * if recording a grid fails, the grid's events are not interrupted: recording stops, and the failure is thrown
+ * by the next flush / close (the file is then left without an index)
+ */
+public class TraceWriter implements GridListener, Closeable {
+
+    // the value identifying trace files
+    public static final int MAGIC = 0x54524331;
+
+    // the size of the header and trailer in bytes
+    public static final int HEADER_BYTES = 4 * Integer.BYTES;
+    public static final int TRAILER_BYTES = 2 * Long.BYTES;
+
+    // the number of events between index points
+    public static final int INTERVAL = 4096;
+
+    // the maximal size of a single encoded event
+    private static final int MAX_EVENT_BYTES = 10;
+
+    // The file being written
+    private final FileChannel channel;
+
+    // The grid the trace is recorded from, null if events are recorded by hand
+    private final Grid grid;
+
+    // The width of the grid, used to pack the tiles
+    private final int width;
+
+    // The pending bytes, and the file offset of the first of them
+    private final ByteBuffer buffer;
+    private long offset;
+
+    // The number of events written, and the packed tile of the last one
+    private long events;
+    private int previous;
+
+    // The offsets of the index points
+    private long[] index;
+
+    // The first failure to record an event of the grid, and whether the file was closed
+    private IOException failure;
+    private boolean closed;
+
+    /**
+     * A constructor to create a new trace file for a grid of given dimensions
+     * @param file - the file to write (replaced if it exists)
+     * @param width - the width of the grid
+     * @param height - the height of the grid
+     * @throws IOException - if the file can't be created
+     */
+    public TraceWriter(Path file, int width, int height) throws IOException {
+        this(file, width, height, null);
+    }
+
+    /**
+     * A constructor to create a new trace file recording every tile a grid marks as visited / path until closed
+     * @param file - the file to write (replaced if it exists)
+     * @param grid - the grid to record
+     * @throws IOException - if the file can't be created
+     */
+    public TraceWriter(Path file, Grid grid) throws IOException {
+        this(file, grid.getWidth(), grid.getHeight(), grid);
+        grid.addListener(this);
+    }
+
+    // A constructor to create the file and write its header
+    private TraceWriter(Path file, int width, int height, Grid grid) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.grid = grid;
+        this.width = width;
+        this.buffer = ByteBuffer.allocateDirect(1 << 16);
+        this.index = new long[16];
+        this.buffer.putInt(MAGIC).putInt(width).putInt(height).putInt(INTERVAL);
+    }
+
+    /**
+     * A method to write a whole visitor log to a trace file
+     * @param file - the file to write (replaced if it exists)
+     * @param width - the width of the grid the log was recorded on
+     * @param height - the height of the grid the log was recorded on
+     * @param log - the log to write
+     * @throws IOException - if the file can't be written
+     */
+    public static void write(Path file, int width, int height, List<GridConstants.Visitor> log) throws IOException {
+        try (TraceWriter writer = new TraceWriter(file, width, height)) {
+            for (GridConstants.Visitor visitor : log)
+                writer.record(visitor.getPoint().x, visitor.getPoint().y, visitor.getType());
+        }
+    }
+
+    /**
+     * A method to add an event to the trace
+     * @param x - the width index of the tile
+     * @param y - the height index of the tile
+     * @param tile_type - the type the tile was marked as
+     * @throws IOException - if writing to the file fails
+     */
+    public synchronized void record(int x, int y, GridConstants.TILE_TYPES tile_type) throws IOException {
+        if (this.failure != null)
+            throw this.failure;
+        if (this.buffer.remaining() < MAX_EVENT_BYTES)
+            this.writeBuffer();
+        int tile = y * this.width + x;
+        // start a new index point, decodable without the events before it
+        if (this.events % INTERVAL == 0) {
+            int point = (int) (this.events / INTERVAL);
+            if (point == this.index.length)
+                this.index = Arrays.copyOf(this.index, point * 2);
+            this.index[point] = this.offset + this.buffer.position();
+            this.previous = 0;
+        }
+        long delta = tile - this.previous;
+        long value = ((delta << 1) ^ (delta >> 63)) << 3 | tile_type.ordinal();
+        // write 7 bits at a time, the high bit marks that more bytes follow
+        while ((value & ~0x7FL) != 0) {
+            this.buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        this.buffer.put((byte) value);
+        this.previous = tile;
+        this.events++;
+    }
+
+    /**
+     * A method to get the number of events written so far
+     * @return the number of events
+     */
+    public synchronized long getEventCount() {
+        return this.events;
+    }
+
+    @Override
+    public synchronized void tileChanged(int x, int y, GridConstants.TILE_TYPES previous, GridConstants.TILE_TYPES current) {
+        if (current != GridConstants.TILE_TYPES.VISITED && current != GridConstants.TILE_TYPES.PATH)
+            return;
+        // events may still arrive while the writer is being closed, and stop after a failure
+        if (this.closed || this.failure != null)
+            return;
+        try {
+            this.record(x, y, current);
+        }
+        catch (IOException e) {
+            // keep the failure for the writer's owner, the grid's listeners are not the place to handle it
+            this.failure = e;
+        }
+    }
+
+    @Override
+    public void gridReset() {
+    }
+
+    /**
+     * A method to write the pending events to the file
+     * @throws IOException - if writing to the file fails, or recording the grid failed before
+     */
+    public synchronized void flush() throws IOException {
+        if (this.failure != null)
+            throw this.failure;
+        this.writeBuffer();
+    }
+
+    // A method to write the pending bytes to the file
+    private void writeBuffer() throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining())
+            this.offset += this.channel.write(this.buffer);
+        this.buffer.clear();
+    }
+
+    /**
+     * A method to write the index and close the file (stops recording the grid if there is one) <br>
+     * closing an already closed writer does nothing
+     * @throws IOException - if writing to the file fails, or recording the grid failed before
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.closed)
+            return;
+        this.closed = true;
+        if (this.grid != null)
+            this.grid.removeListener(this);
+        try {
+            // a trace that lost events gets no index, so it can't be read back as complete
+            if (this.failure != null)
+                throw this.failure;
+            long indexOffset = this.offset + this.buffer.position();
+            int points = (int) ((this.events + INTERVAL - 1) / INTERVAL);
+            for (int point = 0; point < points; point++) {
+                if (this.buffer.remaining() < Long.BYTES)
+                    this.writeBuffer();
+                this.buffer.putLong(this.index[point]);
+            }
+            if (this.buffer.remaining() < TRAILER_BYTES)
+                this.writeBuffer();
+            this.buffer.putLong(indexOffset).putLong(this.events);
+            this.writeBuffer();
+        }
+        finally {
+            this.channel.close();
+        }
+    }
+
+}
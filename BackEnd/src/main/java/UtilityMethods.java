@@ -1,23 +1,61 @@
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * A class to contain general utility methods
  */
 public class UtilityMethods {
 
-    // A static random for all methods to use
-    public static final Random RAND = new Random();
+    // A root random, split into a independent random for every thread
+    private static final SplittableRandom ROOT = new SplittableRandom();
+
+    // The random of every thread
+    private static final ThreadLocal<SplittableRandom> RANDOMS = ThreadLocal.withInitial(UtilityMethods::split);
+
+    // A method to split a new random from the root
+    private static SplittableRandom split() {
+        synchronized (ROOT) {
+            return ROOT.split();
+        }
+    }
 
     /**
-     * A method to shuffle a array using the 'Fisher and Yates' method <br>
+     * A method to get the calling thread's random <br>
+     * every thread has its own random, so threads never contend on a shared one
+     * @return the random of the calling thread
+     */
+    public static SplittableRandom getRandom() {
+        return RANDOMS.get();
+    }
+
+    /**
+     * A method to reseed the calling thread's random, making the following random choices on this thread reproducible
+     * @param seed - the seed to use
+     */
+    public static void setSeed(long seed) {
+        RANDOMS.set(new SplittableRandom(seed));
+    }
+
+    /**
+     * A method to shuffle a array using the 'Fisher and Yates' method, with the calling thread's random <br>
      * source: https://en.wikipedia.org/wiki/Fisher%E2%80%93Yates_shuffle
      * @param arr - the input array to be shuffled
      * @param <T> - the array's type
      */
     public static <T> void shuffleArray(T[] arr) {
+        shuffleArray(arr, getRandom());
+    }
+
+    /**
+     * A method to shuffle a array using the 'Fisher and Yates' method <br>
+     * source: https://en.wikipedia.org/wiki/Fisher%E2%80%93Yates_shuffle
+     * @param arr - the input array to be shuffled
+     * @param random - the random to use
+     * @param <T> - the array's type
+     */
+    public static <T> void shuffleArray(T[] arr, SplittableRandom random) {
         for (int i = arr.length - 1; i > 0; i--) {
             // select a random index j such that 0 <= j <= i
-            int j = RAND.nextInt(i + 1);
+            int j = random.nextInt(i + 1);
             // swap the element in position i with the element in position j
             T temp = arr[i];
             arr[i] = arr[j];
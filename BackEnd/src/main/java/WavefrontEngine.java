@@ -0,0 +1,212 @@
+import java.util.Arrays;
+
+/**
+ * A bit-parallel BFS engine for reachability and hop distance queries <br>
+ * the grid is packed into rows of long words (one bit per tile), so every step of the wavefront
+ * expands 64 tiles at once using shifts and masks <br>
+ * the BFS distance of every reached tile is kept modulo 3 in 2 bit planes, which is enough to walk back along a shortest path
+ */
+public class WavefrontEngine {
+
+    // The grid to answer queries on
+    private final Grid grid;
+
+    // The number of words in every row
+    private int words;
+
+    // The packed traversable tiles, row by row
+    private long[] traversable;
+
+    // The grid version the packed rows were built for
+    private long version;
+
+    // Reusable search buffers
+    private long[] reached;
+    private long[] frontier;
+    private long[] next;
+    private long[] lowPlane;
+    private long[] highPlane;
+
+    /**
+     * A constructor to create a new wavefront engine for a grid
+     * @param grid - the grid to answer queries on
+     */
+    public WavefrontEngine(Grid grid) {
+        this.grid = grid;
+        this.version = -1;
+    }
+
+    // A method to pack the grid into bit rows if it changed since it was last packed
+    private void update() {
+        if (this.traversable != null && this.version == this.grid.getVersion())
+            return;
+        // pack a snapshot so the rows match a single version of the grid
+        GridSnapshot snapshot = this.grid.snapshot();
+        this.version = snapshot.getVersion();
+        int width = this.grid.getWidth();
+        int height = this.grid.getHeight();
+        this.words = (width + 63) >>> 6;
+        int size = this.words * height;
+        this.traversable = new long[size];
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++)
+                if (snapshot.getTileType(x, y) != GridConstants.TILE_TYPES.WALL)
+                    this.traversable[y * this.words + (x >>> 6)] |= 1L << x;
+        this.reached = new long[size];
+        this.frontier = new long[size];
+        this.next = new long[size];
+        this.lowPlane = new long[size];
+        this.highPlane = new long[size];
+    }
+
+    // A method to check if a bit is set in a packed array
+    private boolean isSet(long[] bits, int x, int y) {
+        return (bits[y * this.words + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    // A method to get the BFS distance (modulo 3) of a reached tile
+    private int getModulo(int x, int y) {
+        return (this.isSet(this.highPlane, x, y) ? 2 : 0) + (this.isSet(this.lowPlane, x, y) ? 1 : 0);
+    }
+
+    // A method to run the wavefront from one tile until it reaches another, returns the hop distance (-1 if unreachable)
+    private int expand(int[] from, int[] to) {
+        this.update();
+        if (!this.grid.isInGrid(from[0], from[1]) || !this.grid.isInGrid(to[0], to[1]))
+            throw new IndexOutOfBoundsException("Query tiles are not in the grid!");
+        if (!this.isSet(this.traversable, from[0], from[1]) || !this.isSet(this.traversable, to[0], to[1]))
+            return -1;
+        // reset the search buffers
+        Arrays.fill(this.reached, 0);
+        Arrays.fill(this.frontier, 0);
+        Arrays.fill(this.next, 0);
+        Arrays.fill(this.lowPlane, 0);
+        Arrays.fill(this.highPlane, 0);
+        int height = this.grid.getHeight();
+        int word = from[1] * this.words + (from[0] >>> 6);
+        this.frontier[word] = this.reached[word] = 1L << from[0];
+        // the rows the frontier spans
+        int low = from[1], high = from[1];
+        int distance = 0;
+        while (!this.isSet(this.reached, to[0], to[1])) {
+            distance++;
+            boolean lowBit = (distance % 3 & 1) != 0;
+            boolean highBit = (distance % 3 & 2) != 0;
+            int nextLow = Integer.MAX_VALUE, nextHigh = -1;
+            // every row next to the frontier may be reached in this step
+            for (int y = Math.max(0, low - 1); y <= Math.min(height - 1, high + 1); y++) {
+                int row = y * this.words;
+                boolean any = false;
+                for (int w = 0; w < this.words; w++) {
+                    long current = this.frontier[row + w];
+                    // horizontal moves, carrying bits across word boundaries
+                    long spread = current << 1 | current >>> 1;
+                    if (w > 0)
+                        spread |= this.frontier[row + w - 1] >>> 63;
+                    if (w + 1 < this.words)
+                        spread |= this.frontier[row + w + 1] << 63;
+                    // vertical moves
+                    if (y > 0)
+                        spread |= this.frontier[row - this.words + w];
+                    if (y + 1 < height)
+                        spread |= this.frontier[row + this.words + w];
+                    long reachedNow = spread & this.traversable[row + w] & ~this.reached[row + w];
+                    this.next[row + w] = reachedNow;
+                    if (reachedNow != 0) {
+                        any = true;
+                        this.reached[row + w] |= reachedNow;
+                        if (lowBit)
+                            this.lowPlane[row + w] |= reachedNow;
+                        if (highBit)
+                            this.highPlane[row + w] |= reachedNow;
+                    }
+                }
+                if (any) {
+                    nextLow = Math.min(nextLow, y);
+                    nextHigh = y;
+                }
+            }
+            // clear the old frontier so both buffers only hold their own rows
+            Arrays.fill(this.frontier, low * this.words, (high + 1) * this.words, 0);
+            long[] temp = this.frontier;
+            this.frontier = this.next;
+            this.next = temp;
+            // stop if the wavefront died out
+            if (nextHigh == -1)
+                return -1;
+            low = nextLow;
+            high = nextHigh;
+        }
+        return distance;
+    }
+
+    /**
+     * A method to get the hop distance between 2 tiles
+     * @param from - the first tile
+     * @param to - the second tile
+     * @return the length of the shortest path between the tiles, -1 if there is none
+     * @throws IndexOutOfBoundsException - if one of the tiles is not in the grid
+     */
+    public int getDistance(int[] from, int[] to) throws IndexOutOfBoundsException {
+        return this.expand(from, to);
+    }
+
+    /**
+     * A method to get the hop distance from the grid's source to its destination
+     * @return the length of the shortest path, -1 if there is none or the source / destination are not set
+     */
+    public int getDistance() {
+        if (this.grid.getSource() == null || this.grid.getDestination() == null)
+            return -1;
+        return this.getDistance(this.grid.getSource(), this.grid.getDestination());
+    }
+
+    /**
+     * A method to check if the grid's destination can be reached from its source
+     * @return true if a path exists, false otherwise
+     */
+    public boolean isReachable() {
+        return this.getDistance() != -1;
+    }
+
+    /**
+     * A method to find a shortest path between 2 tiles
+     * @param from - the first tile
+     * @param to - the second tile
+     * @return the path (starting at from, ending at to), null if there is no path
+     * @throws IndexOutOfBoundsException - if one of the tiles is not in the grid
+     */
+    public PathResult getPath(int[] from, int[] to) throws IndexOutOfBoundsException {
+        int distance = this.expand(from, to);
+        if (distance == -1)
+            return null;
+        // walk back from the destination, each step goes to a reached neighbour one level closer
+        int[] output = new int[distance + 1];
+        int x = to[0], y = to[1];
+        output[distance] = this.grid.getIndex(x, y);
+        for (int level = distance - 1; level >= 0; level--) {
+            int modulo = level % 3;
+            if (y + 1 < this.grid.getHeight() && this.isSet(this.reached, x, y + 1) && this.getModulo(x, y + 1) == modulo)
+                y++;
+            else if (y > 0 && this.isSet(this.reached, x, y - 1) && this.getModulo(x, y - 1) == modulo)
+                y--;
+            else if (x > 0 && this.isSet(this.reached, x - 1, y) && this.getModulo(x - 1, y) == modulo)
+                x--;
+            else
+                x++;
+            output[level] = this.grid.getIndex(x, y);
+        }
+        return new PathResult(output, distance, this.grid.getWidth());
+    }
+
+    /**
+     * A method to find a shortest path from the grid's source to its destination
+     * @return the path, null if there is no path or the source / destination are not set
+     */
+    public PathResult getPath() {
+        if (this.grid.getSource() == null || this.grid.getDestination() == null)
+            return null;
+        return this.getPath(this.grid.getSource(), this.grid.getDestination());
+    }
+
+}
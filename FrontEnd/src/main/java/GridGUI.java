@@ -3,8 +3,11 @@ import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.function.Consumer;
 
 public class GridGUI extends Panel {
@@ -38,12 +41,18 @@ public class GridGUI extends Panel {
         algorithmsMenu.addItem("Dijkstra");
         algorithmsMenu.addItem("DFS");
         algorithmsMenu.addItem("BFS");
+        algorithmsMenu.addItem("Parallel BFS");
+        algorithmsMenu.addItem("Theta*");
+        algorithmsMenu.addItem("Lazy Theta*");
+        algorithmsMenu.addItem("IDA*");
         this.add(algorithmsMenu);
         // Create control buttons
         Button solveBtn = new Button("solve");
         Button genMazeBtn = new Button("generate maze");
         Button clearBtn = new Button("clear grid");
         Button clearMarkingsBtn = new Button("clear markings");
+        Button saveTraceBtn = new Button("save trace");
+        Button replayTraceBtn = new Button("replay trace");
         // Add button functions
         solveBtn.addActionListener(e -> {
             int index = algorithmsMenu.getSelectedIndex();
@@ -55,10 +64,20 @@ public class GridGUI extends Panel {
                 this.gridCanvas.solve(PathfindingAlgorithms::DFS);
             else if (index == 3)
                 this.gridCanvas.solve(PathfindingAlgorithms::BFS);
+            else if (index == 4)
+                this.gridCanvas.solve(ParallelBFS::solve);
+            else if (index == 5)
+                this.gridCanvas.solve(ThetaStar::solve);
+            else if (index == 6)
+                this.gridCanvas.solve(ThetaStar::solveLazy);
+            else if (index == 7)
+                this.gridCanvas.solve(IDAStar::solve);
         });
         genMazeBtn.addActionListener(e -> this.gridCanvas.generateMaze());
         clearBtn.addActionListener(e -> this.gridCanvas.clear());
         clearMarkingsBtn.addActionListener(e -> this.gridCanvas.clearMarkings());
+        saveTraceBtn.addActionListener(e -> this.gridCanvas.saveTrace());
+        replayTraceBtn.addActionListener(e -> this.gridCanvas.replayTrace());
         // Add drawing controls
         Label label = new Label("Currently drawing:");
         JComboBox<String> drawSelection = new JComboBox<>();
@@ -81,10 +100,12 @@ public class GridGUI extends Panel {
         controlPanel.add(genMazeBtn);
         controlPanel.add(clearBtn);
         controlPanel.add(clearMarkingsBtn);
+        controlPanel.add(saveTraceBtn);
+        controlPanel.add(replayTraceBtn);
         controlPanel.add(label);
         controlPanel.add(drawSelection);
         // Configure grid layout and add to main gui
-        controlPanel.setLayout(new GridLayout(2, 3));
+        controlPanel.setLayout(new GridLayout(2, 4));
         this.add(controlPanel);
         // Set layout as grid
         this.setLayout(new GridLayout(3, 1));
@@ -120,6 +141,15 @@ public class GridGUI extends Panel {
         // Timer for animations
         private Timer timer;
 
+        // The thread running the current solve, null if none was started
+        private Thread solver;
+
+        // The visitor log of the last solve, null if nothing was solved yet
+        private LinkedList<GridConstants.Visitor> lastLog;
+
+        // The trace being replayed, null if none is
+        private TraceReader replay;
+
         // Grid width and height
         private final int gridWidth;
         private final int gridHeight;
@@ -227,17 +257,18 @@ public class GridGUI extends Panel {
             this.currentlyDrawing = currentlyDrawing;
         }
 
-        // A show the contents of the grid on the canvas
-        private void readGrid() {
-            // Clear current tiles
-            this.tiles = new HashMap<>();
-            // Add all current tiles to map
-            for (int i = 0; i < this.gridWidth; i++)
-                for (int j = 0; j < this.gridHeight; j++) {
-                    GridConstants.TILE_TYPES tile_type = GridConstants.TILE_TYPES.valueOf(this.grid.getTileType(i, j).name());
-                    if (tile_type != GridConstants.TILE_TYPES.EMPTY)
-                        this.tiles.put(new Point(i * GridConstants.tileWidth + 1, j * GridConstants.tileHeight + 1), tile_type);
-                }
+        // A method to show the changes of a committed transaction on the canvas
+        private void applyChanges(GridChangeSet changes) {
+            // Start from an empty map if the grid was reset
+            if (changes.isReset())
+                this.tiles = new HashMap<>();
+            // Update only the changed tiles
+            for (int i = 0; i < changes.size(); i++) {
+                Point key = new Point(changes.getX(i) * GridConstants.tileWidth + 1, changes.getY(i) * GridConstants.tileHeight + 1);
+                if (changes.getType(i) == GridConstants.TILE_TYPES.EMPTY)
+                    this.tiles.remove(key);
+                else this.tiles.put(key, changes.getType(i));
+            }
             this.repaint();
         }
 
@@ -245,8 +276,7 @@ public class GridGUI extends Panel {
          * A method to generate a maze and show it on the canvas
          */
         public void generateMaze() {
-            this.grid.generateMaze();
-            this.readGrid();
+            this.applyChanges(this.grid.generateMaze());
         }
 
         public void updateZoom(double zoom) {
@@ -266,16 +296,43 @@ public class GridGUI extends Panel {
          * @param pathfindingAlgorithm - the algorithm the use
          */
         public void solve(Consumer<Grid> pathfindingAlgorithm) {
-            pathfindingAlgorithm.accept(this.grid);
-            // get the log of visited notes
-            Iterator<GridConstants.Visitor> pointIterator = this.grid.getVisitorLog().iterator();
+            // ignore the request if a solve is already running
+            if (this.solver != null && this.solver.isAlive())
+                return;
+            this.stopAnimation();
+            // solve off the event thread so the ui stays responsive, then animate on it
+            this.solver = new Thread(() -> {
+                pathfindingAlgorithm.accept(this.grid);
+                LinkedList<GridConstants.Visitor> log = this.grid.getVisitorLog();
+                SwingUtilities.invokeLater(() -> {
+                    this.lastLog = log;
+                    this.animate(log.iterator());
+                });
+            }, "grid-solver");
+            this.solver.setDaemon(true);
+            this.solver.start();
+        }
+
+        // A method to show a animation of visitors
+        private void animate(Iterator<GridConstants.Visitor> pointIterator) {
+            if (!pointIterator.hasNext()) {
+                this.stopAnimation();
+                return;
+            }
             // set a timer for every 100 milliseconds
             this.timer =  new Timer(100, e -> {
                 // get next visitor
-                GridConstants.Visitor visitor = pointIterator.next();
-                // get and scale the point to the grid
-                Point p = visitor.getPoint();
-                p.setLocation(p.getX() * GridConstants.tileWidth + 1, p.getY() * GridConstants.tileHeight + 1);
+                GridConstants.Visitor visitor;
+                try {
+                    visitor = pointIterator.next();
+                }
+                catch (UncheckedIOException ex) {
+                    this.stopAnimation();
+                    JOptionPane.showMessageDialog(this, "Failed to read the trace: " + ex.getCause().getMessage(), "Replay", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                // scale the point to the grid (a new point, the visitor's point is shared with the grid's log)
+                Point p = new Point(visitor.getPoint().x * GridConstants.tileWidth + 1, visitor.getPoint().y * GridConstants.tileHeight + 1);
                 // add to tile map
                 tiles.put(p, visitor.getType());
                 // update canvas
@@ -283,27 +340,104 @@ public class GridGUI extends Panel {
                 // restart timer if needed
                 if (pointIterator.hasNext())
                     timer.restart();
-                else timer.stop();
+                else this.stopAnimation();
             });
             //start the timer
             this.timer.start();
 
         }
 
+        // A method to stop the current animation, closing the replayed trace if there is one
+        private void stopAnimation() {
+            if (this.timer != null)
+                this.timer.stop();
+            if (this.replay != null) {
+                try {
+                    this.replay.close();
+                }
+                catch (IOException ignored) {
+                }
+                this.replay = null;
+            }
+        }
+
+        /**
+         * A method to save the visitor log of the last solve as a trace file (see TraceWriter)
+         */
+        public void saveTrace() {
+            if (this.lastLog == null) {
+                JOptionPane.showMessageDialog(this, "Nothing was solved yet!", "Save trace", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            JFileChooser chooser = new JFileChooser();
+            if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION)
+                return;
+            try {
+                TraceWriter.write(chooser.getSelectedFile().toPath(), this.gridWidth, this.gridHeight, this.lastLog);
+            }
+            catch (IOException e) {
+                JOptionPane.showMessageDialog(this, "Failed to save the trace: " + e.getMessage(), "Save trace", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+
+        /**
+         * A method to replay a trace file on the canvas, starting from a chosen event <br>
+         * the trace is read as it is animated, so even very long traces are never loaded whole
+         */
+        public void replayTrace() {
+            if (this.solver != null && this.solver.isAlive())
+                return;
+            JFileChooser chooser = new JFileChooser();
+            if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION)
+                return;
+            TraceReader reader;
+            try {
+                reader = new TraceReader(chooser.getSelectedFile().toPath());
+            }
+            catch (IOException e) {
+                JOptionPane.showMessageDialog(this, "Failed to open the trace: " + e.getMessage(), "Replay trace", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            try {
+                if (reader.getWidth() != this.gridWidth || reader.getHeight() != this.gridHeight)
+                    throw new IOException("the trace was recorded on a " + reader.getWidth() + "x" + reader.getHeight() + " grid!");
+                String start = JOptionPane.showInputDialog(this, "Start from event (0 - " + reader.getEventCount() + "):", "0");
+                if (start == null) {
+                    reader.close();
+                    return;
+                }
+                reader.seek(Long.parseLong(start.trim()));
+            }
+            catch (IOException | NumberFormatException | IndexOutOfBoundsException e) {
+                try {
+                    reader.close();
+                }
+                catch (IOException ignored) {
+                }
+                JOptionPane.showMessageDialog(this, "Can't replay the trace: " + e.getMessage(), "Replay trace", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            // replay over a grid without markings
+            this.stopAnimation();
+            this.clearMarkings();
+            this.replay = reader;
+            this.animate(reader);
+        }
+
         /**
          * A method completely clean the grid
          */
         public void clear() {
-            this.grid.clearGrid();
-            this.readGrid();
+            this.applyChanges(this.grid.clearGrid());
         }
 
         /**
          * A method to clear only path and visited markings of the grid
          */
         public void clearMarkings() {
-            this.grid.clearMarkings();
-            this.readGrid();
+            this.applyChanges(this.grid.clearMarkings());
+            // drop replayed markings, which are only on the canvas
+            this.tiles.values().removeIf(type -> type == GridConstants.TILE_TYPES.VISITED || type == GridConstants.TILE_TYPES.PATH);
         }
 
     }